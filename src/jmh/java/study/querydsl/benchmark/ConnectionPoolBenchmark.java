@@ -0,0 +1,126 @@
+package study.querydsl.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.changefeed.ChangeEvent;
+import study.querydsl.changefeed.ChangeFeed;
+import study.querydsl.controller.MemberExportFormat;
+import study.querydsl.controller.MemberExporter;
+import study.querydsl.dto.MemberImportResult;
+import study.querydsl.dto.MemberImportRow;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.service.MemberBulkImportService;
+
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * 커넥션 풀 / JDBC 프로파일(oltp, export, bulk-load)별 부하 비교
+ * - pageSearch: /v2/members 버스트 (동시 32 요청)
+ * - export: /v1/members/stream 전체 내보내기 (동시 4 요청)
+ * - bulkImport: MemberBulkImportService JDBC 배치 insert
+ * trial 이 끝나면 hikaricp.connections.* 메트릭(획득 대기, 타임아웃)을 로그로 남긴다.
+ * ./gradlew jmh -PjmhIncludes=ConnectionPool -PjmhMembers=100000
+ */
+@Slf4j
+public class ConnectionPoolBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int IMPORT_ROWS = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class PoolState extends MemberDataState {
+
+        @Param({"default", "oltp", "export", "bulk-load"})
+        String profile;
+
+        MemberRepository memberRepository;
+        MemberExporter memberExporter;
+        MemberBulkImportService importService;
+        MeterRegistry meterRegistry;
+        JdbcTemplate jdbcTemplate;
+        ChangeFeed changeFeed;
+
+        @Override
+        protected String[] profiles() {
+            return "default".equals(profile) ? new String[0] : new String[]{profile};
+        }
+
+        @Override
+        protected void afterSeed() {
+            memberRepository = context.getBean(MemberRepository.class);
+            memberExporter = context.getBean(MemberExporter.class);
+            importService = context.getBean(MemberBulkImportService.class);
+            meterRegistry = context.getBean(MeterRegistry.class);
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+            changeFeed = context.getBean(ChangeFeed.class);
+
+            // 시드 데이터는 id 를 직접 넣었으므로 import 가 쓰는 시퀀스를 그 뒤로 옮긴다.
+            jdbcTemplate.execute("alter sequence member_seq restart with " + (members + 1));
+        }
+
+        // 이전 iteration 에서 bulkImport 가 넣은 row 를 지워서 매 iteration 시드 크기의 테이블에 insert 한다.
+        @Setup(Level.Iteration)
+        public void removeImportedMembers() {
+            if (jdbcTemplate.update("delete from member where id > ?", members) > 0) {
+                changeFeed.recordUnknown(ChangeEvent.Entity.MEMBER, ChangeEvent.Operation.DELETE);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void printPoolMetrics() {
+            Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+            if (acquire == null) {
+                return;
+            }
+            double timeouts = meterRegistry.find("hikaricp.connections.timeout").counter() != null
+                    ? meterRegistry.find("hikaricp.connections.timeout").counter().count()
+                    : 0;
+            log.info("[{}] connection acquire: count={}, mean={}ms, max={}ms, timeouts={}",
+                    profile, acquire.count(), String.format("%.3f", acquire.mean(TimeUnit.MILLISECONDS)),
+                    String.format("%.3f", acquire.max(TimeUnit.MILLISECONDS)), (long) timeouts);
+        }
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Page<MemberTeamDto> pageSearch(PoolState state) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team" + (ThreadLocalRandom.current().nextInt(MemberDataState.TEAM_COUNT) + 1));
+        int page = ThreadLocalRandom.current().nextInt(100);
+        return state.memberRepository.searchPageComplex(condition, PageRequest.of(page, PAGE_SIZE));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void export(PoolState state) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeLoe(10);
+        state.memberExporter.export(condition, MemberExportFormat.NDJSON, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public MemberImportResult bulkImport(PoolState state) {
+        Iterator<MemberImportRow> rows = IntStream.range(0, IMPORT_ROWS)
+                .mapToObj(i -> new MemberImportRow("import" + i, i % 100, "team" + (i % MemberDataState.TEAM_COUNT + 1)))
+                .iterator();
+        return state.importService.importMembersJdbc(rows);
+    }
+}
@@ -0,0 +1,94 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.changefeed.ChangeEvent;
+import study.querydsl.changefeed.ChangeFeed;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 임베디드 H2(in-memory)에 member를 members 건 만큼 넣고 스프링 컨텍스트를 띄운다.
+ * 벤치마크마다 이 상태를 상속해서 필요한 빈을 꺼내 쓴다.
+ * 1000만 건 이상은 -Xmx4g 로는 오래 걸리므로 기본값에서 빼고 -PjmhMembers=10000000 으로 직접 지정한다.
+ */
+@State(Scope.Benchmark)
+public class MemberDataState {
+
+    public static final int TEAM_COUNT = 10;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int members;
+
+    protected ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profiles())
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "logging.level.org.hibernate.SQL=warn"
+                )
+                .properties(properties())
+                .run();
+
+        seed(context.getBean(JdbcTemplate.class));
+        // JDBC 로 넣었으므로 캐시, 메모리 인덱스, rollup 이 다시 읽게 한다.
+        ChangeFeed changeFeed = context.getBean(ChangeFeed.class);
+        changeFeed.recordUnknown(ChangeEvent.Entity.TEAM, ChangeEvent.Operation.INSERT);
+        changeFeed.recordUnknown(ChangeEvent.Entity.MEMBER, ChangeEvent.Operation.INSERT);
+        afterSeed();
+    }
+
+    // 활성화할 스프링 프로파일 (application.yml 의 oltp / export / bulk-load 등)
+    protected String[] profiles() {
+        return new String[0];
+    }
+
+    // 벤치마크별 추가 설정 (key=value)
+    protected String[] properties() {
+        return new String[0];
+    }
+
+    protected void afterSeed() {
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> teams = new ArrayList<>();
+        for (long teamId = 1; teamId <= TEAM_COUNT; teamId++) {
+            teams.add(new Object[]{teamId, "team" + teamId});
+        }
+        jdbcTemplate.batchUpdate("insert into team (id, name) values (?, ?)", teams);
+
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (long id = 1; id <= members; id++) {
+            batch.add(new Object[]{id, (int) (id % 100), "member" + id, id % TEAM_COUNT + 1});
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("insert into member (id, age, username, team_id) values (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into member (id, age, username, team_id) values (?, ?, ?, ?)", batch);
+        }
+    }
+}
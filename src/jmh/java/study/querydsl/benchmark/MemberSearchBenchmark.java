@@ -0,0 +1,80 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.CompiledMemberSearch;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+
+/**
+ * 검색 repository 경로별 비교
+ * - Querydsl search vs 형태별로 미리 만든 JPQL (CompiledMemberSearch)
+ * - BooleanBuilder vs where 다중 파라미터
+ * - searchPageSimple vs searchPageComplex
+ */
+public class MemberSearchBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SearchState extends MemberDataState {
+
+        MemberRepository memberRepository;
+        MemberJpaRepository memberJpaRepository;
+        CompiledMemberSearch compiledSearch;
+
+        MemberSearchCondition condition;
+        Pageable pageable;
+
+        @Override
+        protected void afterSeed() {
+            memberRepository = context.getBean(MemberRepository.class);
+            memberJpaRepository = context.getBean(MemberJpaRepository.class);
+            compiledSearch = context.getBean(CompiledMemberSearch.class);
+
+            // 대략 전체의 1/1000 건이 조회되는 조건
+            condition = new MemberSearchCondition();
+            condition.setTeamName("team3");
+            condition.setAgeGoe(20);
+            condition.setAgeLoe(20);
+
+            pageable = PageRequest.of(5, 20);
+        }
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> repositorySearch(SearchState state) {
+        return state.memberRepository.search(state.condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> compiledSearch(SearchState state) {
+        return state.compiledSearch.search(state.condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> jpaSearch(SearchState state) {
+        return state.memberJpaRepository.search(state.condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> jpaSearchWithBuilder(SearchState state) {
+        return state.memberJpaRepository.searchWithBuilder(state.condition);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple(SearchState state) {
+        return state.memberRepository.searchPageSimple(state.condition, state.pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex(SearchState state) {
+        return state.memberRepository.searchPageComplex(state.condition, state.pageable);
+    }
+}
@@ -0,0 +1,55 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.scan.MemberParallelScan;
+
+/**
+ * member 전체 조회를 worker 수별로 비교 (parallelism=1 이 단일 커넥션 기준)
+ * 임베디드 H2 는 DB 와 worker 가 같은 CPU 를 나눠 쓰므로, 실제 DB 서버를 대상으로 할 때보다 이득이 작게 나온다.
+ * ./gradlew jmh -PjmhIncludes=ParallelScan -PjmhMembers=1000000
+ */
+public class ParallelScanBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ScanState extends MemberDataState {
+
+        @Param({"1", "2", "4", "8"})
+        int parallelism;
+
+        MemberParallelScan parallelScan;
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        @Override
+        protected String[] properties() {
+            return new String[]{
+                    "member.search.scan.enabled=true",
+                    "member.search.scan.parallelism=" + parallelism,
+                    // parallelism 은 풀 크기의 절반까지만 허용된다.
+                    "spring.datasource.hikari.maximum-pool-size=" + Math.max(10, parallelism * 2)
+            };
+        }
+
+        @Override
+        protected void afterSeed() {
+            parallelScan = context.getBean(MemberParallelScan.class);
+        }
+    }
+
+    @Benchmark
+    public long ordered(ScanState state) {
+        long[] rows = new long[1];
+        state.parallelScan.forEachChunk(state.condition, MemberParallelScan.Merge.ORDERED, chunk -> rows[0] += chunk.size());
+        return rows[0];
+    }
+
+    @Benchmark
+    public long unordered(ScanState state) {
+        long[] rows = new long[1];
+        state.parallelScan.forEachChunk(state.condition, MemberParallelScan.Merge.UNORDERED, chunk -> rows[0] += chunk.size());
+        return rows[0];
+    }
+}
@@ -0,0 +1,149 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.projection.MemberJdbcProjection;
+
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * QuerydslProjectionTest 의 프로젝션 방식별 비교 (한 번에 ROWS 건 조회)
+ */
+public class ProjectionBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    @State(Scope.Benchmark)
+    public static class ProjectionState extends MemberDataState {
+
+        JPAQueryFactory queryFactory;
+        MemberJdbcProjection jdbcProjection;
+
+        @Override
+        protected void afterSeed() {
+            queryFactory = context.getBean(JPAQueryFactory.class);
+            jdbcProjection = context.getBean(MemberJdbcProjection.class);
+        }
+    }
+
+    @Benchmark
+    public List<Tuple> tuple(ProjectionState state) {
+        return state.queryFactory
+                .select(member.username, member.age)
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> bean(ProjectionState state) {
+        return state.queryFactory
+                .select(Projections.bean(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> fields(ProjectionState state) {
+        return state.queryFactory
+                .select(Projections.fields(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> constructor(ProjectionState state) {
+        return state.queryFactory
+                .select(Projections.constructor(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> queryProjection(ProjectionState state) {
+        return state.queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> memberTeamQueryProjection(ProjectionState state) {
+        return state.queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> memberTeamConstructor(ProjectionState state) {
+        return state.queryFactory
+                .select(Projections.constructor(MemberTeamDto.class,
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> memberTeamBean(ProjectionState state) {
+        return state.queryFactory
+                .select(Projections.bean(MemberTeamDto.class,
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    // gc.alloc.rate.norm 으로 위 방식들과 row 당 할당량을 비교한다. (JDBC 경로도 문자열 컬럼은 row 마다 할당된다.)
+    @Benchmark
+    public List<MemberTeamDto> memberTeamJdbc(ProjectionState state) {
+        return state.jdbcProjection.search(new MemberSearchCondition(), ROWS);
+    }
+
+    @Benchmark
+    public MemberTeamColumns memberTeamJdbcColumns(ProjectionState state) {
+        return state.jdbcProjection.searchColumns(new MemberSearchCondition(), ROWS);
+    }
+}
@@ -0,0 +1,91 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.controller.json.MemberColumnsCodec;
+import study.querydsl.controller.json.MemberJsonModule;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 큰 검색 결과 페이지의 직렬화 비교 (DB 없이 응답 쓰기만 측정)
+ * - 기본 ObjectMapper (리플렉션 기반 BeanSerializer) vs MemberJsonModule
+ * - JSON vs 내부용 바이너리 컬럼 포맷
+ */
+public class SerializationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SerializationState {
+
+        @Param({"10000"})
+        int rows;
+
+        ObjectWriter defaultWriter;
+        ObjectWriter moduleWriter;
+
+        List<MemberTeamDto> list;
+        Page<MemberTeamDto> page;
+        MemberTeamColumns columns;
+
+        @Setup
+        public void setUp() {
+            defaultWriter = new ObjectMapper().writer();
+            moduleWriter = new ObjectMapper().registerModule(new MemberJsonModule()).writer();
+
+            list = new ArrayList<>(rows);
+            columns = new MemberTeamColumns(rows);
+            for (int i = 0; i < rows; i++) {
+                boolean hasTeam = i % 10 != 0;
+                MemberTeamDto dto = new MemberTeamDto((long) i, "member" + i, i % 100,
+                        hasTeam ? (long) (i % 50) : null, hasTeam ? "team" + (i % 50) : null);
+                list.add(dto);
+                columns.add(i, dto.getUsername(), dto.getAge(), false,
+                        hasTeam ? dto.getTeamId() : 0, !hasTeam, dto.getTeamName());
+            }
+            page = new PageImpl<>(list, PageRequest.of(0, rows), rows * 10L);
+        }
+    }
+
+    @Benchmark
+    public void listDefault(SerializationState state) throws IOException {
+        state.defaultWriter.writeValue(OutputStream.nullOutputStream(), state.list);
+    }
+
+    @Benchmark
+    public void listModule(SerializationState state) throws IOException {
+        state.moduleWriter.writeValue(OutputStream.nullOutputStream(), state.list);
+    }
+
+    @Benchmark
+    public void pageDefault(SerializationState state) throws IOException {
+        state.defaultWriter.writeValue(OutputStream.nullOutputStream(), state.page);
+    }
+
+    @Benchmark
+    public void pageModule(SerializationState state) throws IOException {
+        state.moduleWriter.writeValue(OutputStream.nullOutputStream(), state.page);
+    }
+
+    @Benchmark
+    public void columnsModule(SerializationState state) throws IOException {
+        state.moduleWriter.writeValue(OutputStream.nullOutputStream(), state.columns);
+    }
+
+    @Benchmark
+    public void columnsBinary(SerializationState state) throws IOException {
+        MemberColumnsCodec.write(state.columns, OutputStream.nullOutputStream());
+    }
+}
@@ -4,11 +4,16 @@ import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import study.querydsl.changefeed.ChangeCapturingQueryFactory;
+import study.querydsl.changefeed.ChangeFeed;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+@ConfigurationPropertiesScan
 @SpringBootApplication
 public class QuerydslApplication {
 
@@ -19,8 +24,15 @@ public class QuerydslApplication {
         SpringApplication.run(QuerydslApplication.class, args);
     }
 
+    @Primary
     @Bean
     public JPAQueryFactory jpaQueryFactory() {
         return new JPAQueryFactory(em);
     }
+
+    @Bean
+    public ChangeCapturingQueryFactory changeCapturingQueryFactory(ChangeFeed changeFeed) {
+        // Member / Team 벌크 update, delete 의 대상 row 를 ChangeFeed 에 기록 (MemberBulkMutationService 전용)
+        return new ChangeCapturingQueryFactory(em, changeFeed);
+    }
 }
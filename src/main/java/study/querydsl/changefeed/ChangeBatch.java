@@ -0,0 +1,47 @@
+package study.querydsl.changefeed;
+
+import lombok.Getter;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 트랜잭션 하나에서 커밋된 변경 묶음
+ * sequence 는 발행 순서대로 1씩 증가한다. (동시에 커밋된 트랜잭션끼리는 커밋 순서와 다를 수 있다.)
+ */
+@Getter
+public class ChangeBatch {
+
+    private final long sequence;
+    private final List<ChangeEvent> events;
+
+    public ChangeBatch(long sequence, List<ChangeEvent> events) {
+        this.sequence = sequence;
+        this.events = events;
+    }
+
+    public boolean hasUnknown() {
+        for (ChangeEvent event : events) {
+            if (event.isUnknown()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean affects(MemberSearchCondition condition, Collection<MemberTeamDto> rows) {
+        for (ChangeEvent event : events) {
+            if (event.affects(condition, rows)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeBatch#" + sequence + events;
+    }
+}
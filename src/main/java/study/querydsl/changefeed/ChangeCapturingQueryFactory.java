@@ -0,0 +1,190 @@
+package study.querydsl.changefeed;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.QTeam;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Member / Team 에 대한 Querydsl 벌크 update / delete 의 대상 row 를 ChangeFeed 에 기록하는 JPAQueryFactory
+ * 실행 전에 같은 where 조건으로 대상 row(변경 전 상태)를 조회하고, update 면 실행 후 변경 후 상태를 다시 조회한다.
+ * 대상 row 를 모두 메모리에 올리므로 기본 JPAQueryFactory 빈이 아니라 id 구간으로 나눠 실행하는 벌크 경로
+ * (MemberBulkMutationService)에서만 주입받아 쓴다. 그 밖의 벌크 update / delete 는 unknown 이벤트로 기록된다.
+ */
+public class ChangeCapturingQueryFactory extends JPAQueryFactory {
+
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1_000;
+
+    private final EntityManager entityManager;
+    private final ChangeFeed changeFeed;
+
+    public ChangeCapturingQueryFactory(EntityManager entityManager, ChangeFeed changeFeed) {
+        super(entityManager);
+        this.entityManager = entityManager;
+        this.changeFeed = changeFeed;
+    }
+
+    @Override
+    public JPAUpdateClause update(EntityPath<?> path) {
+        if (!isTracked(path)) {
+            return super.update(path);
+        }
+        return new CapturingUpdateClause(path);
+    }
+
+    @Override
+    public JPADeleteClause delete(EntityPath<?> path) {
+        if (!isTracked(path)) {
+            return super.delete(path);
+        }
+        return new CapturingDeleteClause(path);
+    }
+
+    private static boolean isTracked(EntityPath<?> path) {
+        return path.getType() == Member.class || path.getType() == Team.class;
+    }
+
+    private List<MemberTeamDto> rows(EntityPath<?> path, List<Predicate> where) {
+        Predicate predicate = ExpressionUtils.allOf(where);
+
+        if (path.getType() == Member.class) {
+            QMember member = new QMember(path.getMetadata());
+            QTeam team = new QTeam("changeFeedTeam");
+            return new JPAQuery<>(entityManager)
+                    .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(predicate)
+                    .fetch();
+        }
+
+        QTeam team = new QTeam(path.getMetadata());
+        List<Tuple> teams = new JPAQuery<>(entityManager)
+                .select(team.id, team.name)
+                .from(team)
+                .where(predicate)
+                .fetch();
+
+        List<MemberTeamDto> rows = new ArrayList<>(teams.size());
+        for (Tuple row : teams) {
+            rows.add(new MemberTeamDto(null, null, null, row.get(team.id), row.get(team.name)));
+        }
+        return rows;
+    }
+
+    private Map<Long, MemberTeamDto> rowsById(EntityPath<?> path, List<Long> ids) {
+        Map<Long, MemberTeamDto> rows = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, ids.size()));
+            Predicate inChunk = path.getType() == Member.class
+                    ? new QMember(path.getMetadata()).id.in(chunk)
+                    : new QTeam(path.getMetadata()).id.in(chunk);
+            for (MemberTeamDto row : rows(path, Collections.singletonList(inChunk))) {
+                rows.put(idOf(path, row), row);
+            }
+        }
+        return rows;
+    }
+
+    private static Long idOf(EntityPath<?> path, MemberTeamDto row) {
+        return path.getType() == Member.class ? row.getMemberId() : row.getTeamId();
+    }
+
+    private static ChangeEvent event(EntityPath<?> path, ChangeEvent.Operation operation, Long id,
+                                     MemberTeamDto before, MemberTeamDto after) {
+        if (path.getType() == Member.class) {
+            return ChangeEvent.member(operation, id, before, after);
+        }
+        return ChangeEvent.team(operation, id, before.getTeamName(), after == null ? null : after.getTeamName());
+    }
+
+    private long execute(EntityPath<?> path, ChangeEvent.Operation operation, List<Predicate> where,
+                         Supplier<Long> statement) {
+        List<MemberTeamDto> before = rows(path, where);
+        long affected = changeFeed.capture(statement);
+
+        List<Long> ids = new ArrayList<>(before.size());
+        for (MemberTeamDto row : before) {
+            ids.add(idOf(path, row));
+        }
+        Map<Long, MemberTeamDto> after = operation == ChangeEvent.Operation.UPDATE ? rowsById(path, ids) : Collections.emptyMap();
+
+        List<ChangeEvent> events = new ArrayList<>(before.size());
+        for (MemberTeamDto row : before) {
+            Long id = idOf(path, row);
+            events.add(event(path, operation, id, row, after.get(id)));
+        }
+        changeFeed.recordAll(events);
+        return affected;
+    }
+
+    private class CapturingUpdateClause extends JPAUpdateClause {
+
+        private final EntityPath<?> path;
+        private final List<Predicate> where = new ArrayList<>();
+
+        CapturingUpdateClause(EntityPath<?> path) {
+            super(entityManager, path);
+            this.path = path;
+        }
+
+        @Override
+        public JPAUpdateClause where(Predicate... o) {
+            for (Predicate predicate : o) {
+                if (predicate != null) {
+                    where.add(predicate);
+                }
+            }
+            return super.where(o);
+        }
+
+        @Override
+        public long execute() {
+            return ChangeCapturingQueryFactory.this.execute(path, ChangeEvent.Operation.UPDATE, where, super::execute);
+        }
+    }
+
+    private class CapturingDeleteClause extends JPADeleteClause {
+
+        private final EntityPath<?> path;
+        private final List<Predicate> where = new ArrayList<>();
+
+        CapturingDeleteClause(EntityPath<?> path) {
+            super(entityManager, path);
+            this.path = path;
+        }
+
+        @Override
+        public JPADeleteClause where(Predicate... o) {
+            for (Predicate predicate : o) {
+                if (predicate != null) {
+                    where.add(predicate);
+                }
+            }
+            return super.where(o);
+        }
+
+        @Override
+        public long execute() {
+            return ChangeCapturingQueryFactory.this.execute(path, ChangeEvent.Operation.DELETE, where, super::execute);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package study.querydsl.changefeed;
+
+import lombok.Getter;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.Collection;
+import java.util.Objects;
+
+import static java.util.Objects.nonNull;
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * member / team row 하나의 변경
+ * before / after 는 MemberTeamDto 로 표현한다. (team 변경이면 teamId, teamName 만 채운다.)
+ * 대상 row 를 알 수 없는 쓰기(JPQL 이 아닌 SQL 직접 실행 등)는 id 가 null 인 unknown 이벤트로 남기고,
+ * 구독자는 이 경우 해당 엔티티 전체가 바뀐 것으로 처리해야 한다.
+ */
+@Getter
+public class ChangeEvent {
+
+    public enum Entity {
+        MEMBER, TEAM
+    }
+
+    public enum Operation {
+        INSERT, UPDATE, DELETE
+    }
+
+    private final Entity entity;
+    private final Operation operation;
+    private final Long id;
+    // insert 면 null, 알 수 없으면 null
+    private final MemberTeamDto before;
+    // delete 면 null
+    private final MemberTeamDto after;
+
+    private ChangeEvent(Entity entity, Operation operation, Long id, MemberTeamDto before, MemberTeamDto after) {
+        this.entity = entity;
+        this.operation = operation;
+        this.id = id;
+        this.before = before;
+        this.after = after;
+    }
+
+    public static ChangeEvent member(Operation operation, Long id, MemberTeamDto before, MemberTeamDto after) {
+        return new ChangeEvent(Entity.MEMBER, operation, id, before, after);
+    }
+
+    public static ChangeEvent team(Operation operation, Long id, String beforeName, String afterName) {
+        return new ChangeEvent(Entity.TEAM, operation, id,
+                operation == Operation.INSERT ? null : new MemberTeamDto(null, null, null, id, beforeName),
+                operation == Operation.DELETE ? null : new MemberTeamDto(null, null, null, id, afterName));
+    }
+
+    public static ChangeEvent unknown(Entity entity, Operation operation) {
+        return new ChangeEvent(entity, operation, null, null, null);
+    }
+
+    public boolean isUnknown() {
+        return id == null;
+    }
+
+    /**
+     * 이 변경 때문에 condition 의 조회 결과(rows)가 달라질 수 있는지
+     * - member: 변경 전/후 상태가 조건에 맞거나, 결과에 해당 member 가 있으면
+     * - team: 결과에 해당 team 이 있거나, 조건의 팀 이름이 변경 전/후 이름과 같으면
+     * 변경 전 상태를 모르는 update 는 항상 영향이 있다고 본다.
+     */
+    public boolean affects(MemberSearchCondition condition, Collection<MemberTeamDto> rows) {
+        if (isUnknown()) {
+            return true;
+        }
+
+        if (entity == Entity.TEAM) {
+            String teamName = condition.getTeamName();
+            if (hasText(teamName) && (nameEquals(before, teamName) || nameEquals(after, teamName))) {
+                return true;
+            }
+            for (MemberTeamDto row : rows) {
+                if (id.equals(row.getTeamId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        if (operation != Operation.INSERT && before == null) {
+            return true;
+        }
+        if (matches(before, condition) || matches(after, condition)) {
+            return true;
+        }
+        for (MemberTeamDto row : rows) {
+            if (id.equals(row.getMemberId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean matches(MemberTeamDto row, MemberSearchCondition condition) {
+        if (row == null) {
+            return false;
+        }
+        if (hasText(condition.getUsername()) && !condition.getUsername().equals(row.getUsername())) {
+            return false;
+        }
+        if (hasText(condition.getTeamName()) && !condition.getTeamName().equals(row.getTeamName())) {
+            return false;
+        }
+        if (nonNull(condition.getAgeGoe()) && (row.getAge() == null || row.getAge() < condition.getAgeGoe())) {
+            return false;
+        }
+        return !nonNull(condition.getAgeLoe()) || (row.getAge() != null && row.getAge() <= condition.getAgeLoe());
+    }
+
+    private static boolean nameEquals(MemberTeamDto row, String teamName) {
+        return row != null && Objects.equals(row.getTeamName(), teamName);
+    }
+
+    @Override
+    public String toString() {
+        return entity + " " + operation + " " + (isUnknown() ? "?" : id);
+    }
+}
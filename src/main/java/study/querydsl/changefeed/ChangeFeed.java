@@ -0,0 +1,173 @@
+package study.querydsl.changefeed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.jdbc.SqlStatementListener;
+import study.querydsl.jdbc.SqlWriteStatement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * member / team 변경 피드
+ * - 엔티티 insert/update/delete 는 Hibernate 이벤트(HibernateChangeCollector)로,
+ *   대상 row 가 필요한 벌크 update/delete 는 ChangeCapturingQueryFactory 로 실행해서 대상 row 를 조회해 기록한다.
+ * - 그 밖에 Hibernate 를 거친 쓰기 SQL(일반 JPAQueryFactory 벌크, native query)은 unknown 이벤트로 기록한다.
+ * - JdbcTemplate 쓰기는 StatementInspector 에 보이지 않으므로 호출한 쪽에서 recordAll 이나 recordUnknown 으로 직접 기록한다.
+ * 트랜잭션 안에서 기록된 이벤트는 커밋 후 한 묶음(ChangeBatch)으로 발행하고, 롤백되면 버린다.
+ * 발행은 한 번에 하나씩, 커밋한 스레드에서 동기로 실행한다.
+ * 동시에 커밋된 트랜잭션끼리는 afterCommit 이 실행되는 순서로 sequence 가 매겨지므로 커밋 순서와 다를 수 있다.
+ * 그래서 구독자는 이벤트의 after 상태로 덮어쓰지 말고 무효화하거나 해당 row 를 다시 읽어야 한다.
+ * TransactionalChangeListener 는 커밋 전에 같은 트랜잭션 안에서 호출한다. (flush 중 기록된 변경은 flush 가 끝난 뒤)
+ * 트랜잭션 밖에서는 unknown 이벤트만 기록할 수 있다, 대상 row 가 있는 변경은 IllegalStateException
+ */
+@Slf4j
+@Component
+public class ChangeFeed implements SqlStatementListener {
+
+    private static final ThreadLocal<int[]> CAPTURING = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final ObjectProvider<ChangeListener> listeners;
+    private final ObjectProvider<TransactionalChangeListener> transactionalListeners;
+
+    private long sequence;
+
+    public ChangeFeed(ObjectProvider<ChangeListener> listeners,
+                      ObjectProvider<TransactionalChangeListener> transactionalListeners) {
+        this.listeners = listeners;
+        this.transactionalListeners = transactionalListeners;
+    }
+
+    public void record(ChangeEvent event) {
+        recordAll(Collections.singletonList(event));
+    }
+
+    public void recordAll(List<ChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // 쓰기가 이미 autocommit 됐으므로 TransactionalChangeListener 가 같은 트랜잭션에서 반영할 수 없다.
+            if (events.stream().anyMatch(event -> !event.isUnknown()) && transactionalListeners.stream().findAny().isPresent()) {
+                throw new IllegalStateException("changes must be recorded inside a transaction: " + events);
+            }
+            publish(events);
+            return;
+        }
+
+        Pending pending = pending();
+        pending.events.addAll(events);
+        if (!EntityFlushTracker.isFlushing()) {
+            applyPending(pending);
+        }
+    }
+
+    /**
+     * 대상 row 를 알 수 없는 쓰기 (JdbcTemplate 으로 member / team 을 직접 바꾼 경우 등)
+     */
+    public void recordUnknown(ChangeEvent.Entity entity, ChangeEvent.Operation operation) {
+        record(ChangeEvent.unknown(entity, operation));
+    }
+
+    /**
+     * Hibernate flush 가 끝났을 때 호출 (HibernateChangeCollector)
+     * flush 중 기록된 변경을 TransactionalChangeListener 에 한 번에 전달한다.
+     */
+    public void flushed() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            applyPending(pending);
+        }
+    }
+
+    /**
+     * 변경 대상을 직접 기록하는 쓰기(벌크 update/delete, JDBC batch insert 등)를 실행
+     * 실행 중 나가는 쓰기 SQL은 unknown 이벤트로 기록하지 않는다.
+     */
+    public <T> T capture(Supplier<T> write) {
+        int[] depth = CAPTURING.get();
+        depth[0]++;
+        try {
+            return write.get();
+        } finally {
+            depth[0]--;
+        }
+    }
+
+    @Override
+    public void onStatement(String sql) {
+        if (CAPTURING.get()[0] > 0 || EntityFlushTracker.isFlushing()) {
+            return;
+        }
+
+        SqlWriteStatement.parse(sql)
+                .filter(statement -> statement.isOn("member", "team"))
+                .ifPresent(statement -> record(ChangeEvent.unknown(
+                        ChangeEvent.Entity.valueOf(statement.getTable().toUpperCase(Locale.ROOT)),
+                        ChangeEvent.Operation.valueOf(statement.getOperation().name()))));
+    }
+
+    private Pending pending() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+
+        Pending created = new Pending();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(created.events);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ChangeFeed.this);
+            }
+        });
+        return created;
+    }
+
+    private void applyPending(Pending pending) {
+        int size = pending.events.size();
+        if (pending.applied == size) {
+            return;
+        }
+        List<ChangeEvent> events = List.copyOf(pending.events.subList(pending.applied, size));
+        pending.applied = size;
+        notifyTransactional(events);
+    }
+
+    private void notifyTransactional(List<ChangeEvent> events) {
+        transactionalListeners.orderedStream().forEach(listener -> listener.onChangesInTransaction(events));
+    }
+
+    private synchronized void publish(List<ChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        ChangeBatch batch = new ChangeBatch(++sequence, List.copyOf(events));
+        log.debug("publish {}", batch);
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onChanges(batch);
+            } catch (RuntimeException e) {
+                log.warn("change listener {} failed on batch #{}", listener.getClass().getSimpleName(), batch.getSequence(), e);
+            }
+        });
+    }
+
+    // 트랜잭션에 묶인 변경, applied 까지는 TransactionalChangeListener 에 전달했다.
+    private static class Pending {
+        private final List<ChangeEvent> events = new ArrayList<>();
+        private int applied;
+    }
+}
@@ -0,0 +1,10 @@
+package study.querydsl.changefeed;
+
+/**
+ * ChangeFeed 구독자, 발행 순서(ChangeBatch.sequence)대로 한 번에 하나씩 호출된다.
+ * 동시에 커밋된 트랜잭션은 발행 순서가 커밋 순서와 다를 수 있으므로 after 상태를 그대로 반영하지 않는다.
+ */
+public interface ChangeListener {
+
+    void onChanges(ChangeBatch batch);
+}
@@ -0,0 +1,47 @@
+package study.querydsl.changefeed;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * 현재 스레드가 Hibernate flush(엔티티 insert/update/delete 실행) 중인지 표시
+ * flush 중 실행되는 쓰기 SQL은 엔티티 이벤트로 따로 수집되므로 ChangeFeed 가 SQL 단계에서는 무시한다.
+ * hibernate.session.events.auto 로 세션마다 생성된다.
+ */
+public class EntityFlushTracker extends BaseSessionEventListener {
+
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    public static boolean isFlushing() {
+        return DEPTH.get()[0] > 0;
+    }
+
+    @Override
+    public void flushStart() {
+        DEPTH.get()[0]++;
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        exit();
+    }
+
+    @Override
+    public void partialFlushStart() {
+        DEPTH.get()[0]++;
+    }
+
+    @Override
+    public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+        exit();
+    }
+
+    @Override
+    public void end() {
+        DEPTH.remove();
+    }
+
+    private static void exit() {
+        int[] depth = DEPTH.get();
+        depth[0] = Math.max(0, depth[0] - 1);
+    }
+}
@@ -0,0 +1,131 @@
+package study.querydsl.changefeed;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Member / Team 엔티티의 insert, update, delete 를 ChangeFeed 에 기록
+ * (벌크 JPQL 은 엔티티 이벤트가 발생하지 않으므로 ChangeCapturingQueryFactory 나 unknown 이벤트로 기록된다.)
+ * flush 리스너는 기본 flush 리스너 뒤에 붙어서, flush 가 끝나면 ChangeFeed 에 알린다.
+ */
+@Component
+public class HibernateChangeCollector implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        FlushEventListener, AutoFlushEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ChangeFeed changeFeed;
+
+    public HibernateChangeCollector(EntityManagerFactory entityManagerFactory, ChangeFeed changeFeed) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.changeFeed = changeFeed;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.FLUSH, this);
+        registry.appendListeners(EventType.AUTO_FLUSH, this);
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        changeFeed.flushed();
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        changeFeed.flushed();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Member) {
+            Member member = (Member) entity;
+            changeFeed.record(ChangeEvent.member(ChangeEvent.Operation.INSERT, member.getId(), null, row(member)));
+        } else if (entity instanceof Team) {
+            Team team = (Team) entity;
+            changeFeed.record(ChangeEvent.team(ChangeEvent.Operation.INSERT, team.getId(), null, team.getName()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Member) {
+            Member member = (Member) entity;
+            MemberTeamDto before = row(member.getId(), event.getPersister(), event.getOldState());
+            changeFeed.record(ChangeEvent.member(ChangeEvent.Operation.UPDATE, member.getId(), before, row(member)));
+        } else if (entity instanceof Team) {
+            Team team = (Team) entity;
+            String beforeName = event.getOldState() == null ? null : (String) event.getOldState()[index(event.getPersister(), "name")];
+            changeFeed.record(ChangeEvent.team(ChangeEvent.Operation.UPDATE, team.getId(), beforeName, team.getName()));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Member) {
+            Member member = (Member) entity;
+            MemberTeamDto before = row(member.getId(), event.getPersister(), event.getDeletedState());
+            changeFeed.record(ChangeEvent.member(ChangeEvent.Operation.DELETE, member.getId(), before != null ? before : row(member), null));
+        } else if (entity instanceof Team) {
+            Team team = (Team) entity;
+            changeFeed.record(ChangeEvent.team(ChangeEvent.Operation.DELETE, team.getId(), team.getName(), null));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private static MemberTeamDto row(Member member) {
+        Team team = member.getTeam();
+        return new MemberTeamDto(member.getId(), member.getUsername(), member.getAge(),
+                team == null ? null : team.getId(),
+                team == null ? null : team.getName());
+    }
+
+    private static MemberTeamDto row(Long id, EntityPersister persister, Object[] state) {
+        if (state == null) {
+            return null;
+        }
+
+        Team team = (Team) state[index(persister, "team")];
+        return new MemberTeamDto(id,
+                (String) state[index(persister, "username")],
+                (Integer) state[index(persister, "age")],
+                team == null ? null : team.getId(),
+                team == null ? null : team.getName());
+    }
+
+    private static int index(EntityPersister persister, String property) {
+        return persister.getEntityMetamodel().getPropertyIndex(property);
+    }
+}
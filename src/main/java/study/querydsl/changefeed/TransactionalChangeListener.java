@@ -0,0 +1,14 @@
+package study.querydsl.changefeed;
+
+import java.util.List;
+
+/**
+ * 변경을 기록한 트랜잭션 안에서 호출되는 ChangeFeed 구독자 (rollup 테이블 유지 등)
+ * 엔티티 변경은 flush 가 끝날 때, 직접 기록한 변경(recordAll)은 기록 직후 호출된다.
+ * 같은 커넥션으로 실행되므로 예외가 나면 쓰기 트랜잭션도 롤백된다.
+ * 트랜잭션 밖에서 기록된 unknown 이벤트는 전달되지 않으므로 커밋 후 ChangeListener 로 처리한다.
+ */
+public interface TransactionalChangeListener {
+
+    void onChangesInTransaction(List<ChangeEvent> events);
+}
@@ -0,0 +1,25 @@
+package study.querydsl.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.changefeed.EntityFlushTracker;
+import study.querydsl.jdbc.SqlStatementInspector;
+import study.querydsl.jdbc.SqlStatementListener;
+
+@Configuration
+public class HibernateConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(ObjectProvider<SqlStatementListener> listeners) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementInspector(listeners));
+    }
+
+    // flush 중 실행된 쓰기 SQL 을 구분하기 위해 세션마다 등록 (ChangeFeed 참고)
+    @Bean
+    public HibernatePropertiesCustomizer sessionEventsCustomizer() {
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, EntityFlushTracker.class.getName());
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import study.querydsl.service.MemberBulkMutationService;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "member.bulk")
+public class MemberBulkProperties {
+
+    // 트랜잭션 하나로 update / delete 하는 row 수 (id in 절 크기)
+    private int chunkSize = 1_000;
+    // chunk 사이 대기 시간, 다른 트랜잭션이 잠금과 커넥션을 얻을 틈을 준다.
+    private Duration pause = Duration.ZERO;
+    // 진행 상황 로그 주기 (chunk 수)
+    private int logEvery = 10;
+    // 호출자 영속성 컨텍스트에 있는 update 대상 엔티티 처리 (refresh | evict), delete 대상은 항상 evict
+    private MemberBulkMutationService.Reconcile reconcile = MemberBulkMutationService.Reconcile.REFRESH;
+}
@@ -0,0 +1,13 @@
+package study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "member.import")
+public class MemberImportProperties {
+
+    private int chunkSize = 10_000;
+    private int flushSize = 100;
+}
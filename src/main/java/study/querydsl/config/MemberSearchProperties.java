@@ -0,0 +1,98 @@
+package study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import study.querydsl.repository.count.CountMode;
+import study.querydsl.repository.projection.MemberJdbcProjection;
+import study.querydsl.repository.schema.SearchIndexVerifier;
+import study.querydsl.service.MemberSearchExecutor;
+
+import java.time.Duration;
+
+@Getter
+@ConfigurationProperties(prefix = "member.search")
+public class MemberSearchProperties {
+
+    // search, searchPageComplex 를 형태별로 미리 만든 JPQL로 실행
+    // 켜면 팀 이름 조건도 항상 team 조인으로 거른다. (TeamCache 의 팀 id 로 조인을 빼는 경로는 쓰지 않는다)
+    @Setter
+    private boolean compiled = false;
+
+    // 시작 시 search() 조건에 필요한 인덱스가 없으면 fail | warn | off
+    @Setter
+    private SearchIndexVerifier.Mode indexVerification = SearchIndexVerifier.Mode.FAIL;
+
+    // search() 결과를 JDBC 에서 바로 DTO 로 만들지 (querydsl | jdbc)
+    @Setter
+    private MemberJdbcProjection.Mode projection = MemberJdbcProjection.Mode.QUERYDSL;
+
+    private final Count count = new Count();
+    private final Paging paging = new Paging();
+    private final Cache cache = new Cache();
+    private final Stream stream = new Stream();
+    private final Execution execution = new Execution();
+    private final Index index = new Index();
+    private final Scan scan = new Scan();
+
+    @Getter @Setter
+    public static class Count {
+        private CountMode mode = CountMode.EXACT;
+        private Duration cacheTtl = Duration.ofSeconds(30);
+        private long cacheMaximumSize = 1_000;
+        private int asyncPoolSize = 4;
+    }
+
+    @Getter @Setter
+    public static class Paging {
+        // searchPageSimple 에서 count(*) over() 로 컨텐츠와 전체 건수를 한 번에 조회 (DB가 지원할 때만)
+        private boolean windowedCount = true;
+    }
+
+    @Getter @Setter
+    public static class Cache {
+        // 조회 결과 캐시는 명시적으로 켰을 때만 사용
+        private boolean enabled = false;
+        private long maximumSize = 10_000;
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+    }
+
+    @Getter @Setter
+    public static class Stream {
+        // 스트리밍 조회 시 한 번에 DB에서 가져오는 row 수 (MySQL 은 Integer.MIN_VALUE 여야 스트리밍됨)
+        private int fetchSize = 500;
+        // /v1/members/stream 응답 전체에 허용하는 시간 (이 엔드포인트에만 적용)
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+
+    @Getter @Setter
+    public static class Execution {
+        private MemberSearchExecutor.Mode mode = MemberSearchExecutor.Mode.SERVLET;
+        // Java 21 이상에서 실행 중이면 가상 스레드 사용
+        private boolean virtualThreads = true;
+        // 0 이면 커넥션 풀 최대 크기를 따른다.
+        private int maxConcurrency = 0;
+        // 실행 중인 검색 외에 기다릴 수 있는 검색 수, 넘치면 503
+        private int queueCapacity = 100;
+        // 대기열에서 이 시간 안에 시작하지 못하면 503
+        private Duration queueTimeout = Duration.ofSeconds(3);
+    }
+
+    @Getter @Setter
+    public static class Index {
+        // search(condition) 를 메모리 인덱스로 처리, member 전체를 힙에 올리므로 명시적으로 켰을 때만 사용
+        private boolean enabled = false;
+        // 적재할 때 한 번에 읽는 row 수 (member.id keyset 페이지)
+        private int loadBatchSize = 10_000;
+    }
+
+    @Getter @Setter
+    public static class Scan {
+        // export 를 member id 구간별로 나눠 동시에 조회
+        private boolean enabled = false;
+        // 모든 scan 이 나눠 쓰는 worker(커넥션) 수, 0 이면 CPU 수와 커넥션 풀 크기 / 4 중 작은 값 (최대 풀 크기의 절반)
+        private int parallelism = 0;
+        // 구간 하나의 id 범위, 한 번에 힙에 올라가는 row 는 최대 chunkSize * parallelism * 2
+        private int chunkSize = 10_000;
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.config;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * JPQL 표준에 없는 SQL 함수를 Hibernate에 등록
+ * spring.jpa.properties.hibernate.metadata_builder_contributor 로 지정해서 사용한다.
+ */
+public class QuerydslFunctionContributor implements MetadataBuilderContributor {
+
+    // 페이징 조회 시 전체 건수를 컨텐츠와 같은 쿼리에서 구하기 위한 윈도우 함수
+    public static final String COUNT_OVER = "count_over";
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder) {
+        metadataBuilder.applySqlFunction(COUNT_OVER,
+                new SQLFunctionTemplate(StandardBasicTypes.LONG, "count(*) over()"));
+    }
+}
@@ -0,0 +1,18 @@
+package study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "team.cache")
+public class TeamCacheProperties {
+
+    // false 면 팀 이름 조건을 항상 team 조인으로 처리
+    private boolean enabled = true;
+    private long maximumSize = 10_000;
+    // 다른 인스턴스에서 바뀐 팀은 ChangeFeed 로 알 수 없으므로 이 시간이 지나야 다시 읽는다. (인스턴스 간 최대 지연)
+    private Duration expireAfterWrite = Duration.ofMinutes(1);
+}
@@ -0,0 +1,13 @@
+package study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "team.stats")
+public class TeamStatsProperties {
+
+    // false 면 rollup 을 유지하지 않고 /teams/stats 를 매번 group by 로 집계
+    private boolean rollup = true;
+}
@@ -0,0 +1,29 @@
+package study.querydsl.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.querydsl.controller.StreamingTimeoutInterceptor;
+import study.querydsl.controller.json.MemberColumnsHttpMessageConverter;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final StreamingTimeoutInterceptor streamingTimeoutInterceptor;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(streamingTimeoutInterceptor);
+    }
+
+    // 응답 가능한 타입은 컨버터 순서대로 나열되므로, 맨 뒤에 둬야 Accept: */* 가 JSON 으로 응답한다.
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MemberColumnsHttpMessageConverter());
+    }
+}
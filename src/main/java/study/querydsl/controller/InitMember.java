@@ -4,12 +4,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
-import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
+import study.querydsl.dto.MemberImportRow;
+import study.querydsl.service.MemberBulkImportService;
 
 import javax.annotation.PostConstruct;
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
+import java.util.stream.IntStream;
 
 @Profile("local")
 @Component
@@ -25,22 +24,18 @@ public class InitMember {
     }
 
     @Component
+    @RequiredArgsConstructor
     static class InitMemberService {
 
-        @PersistenceContext
-        private EntityManager em;
+        private static final int MEMBER_COUNT = 100;
 
-        @Transactional
+        private final MemberBulkImportService memberBulkImportService;
+
+        // chunk 단위 트랜잭션은 MemberBulkImportService 가 관리
         public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
-
-            for (int i = 0; i < 100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
-            }
+            memberBulkImportService.importMembers(IntStream.range(0, MEMBER_COUNT)
+                    .mapToObj(i -> new MemberImportRow("member" + i, i, i % 2 == 0 ? "teamA" : "teamB"))
+                    .iterator());
         }
     }
 }
@@ -3,30 +3,98 @@ package study.querydsl.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.querydsl.dto.KeysetCursor;
+import study.querydsl.dto.KeysetSlice;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.service.MemberSearchExecutor;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    static final int MAX_COLUMNS_SIZE = 10_000;
+
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberExporter memberExporter;
+    private final MemberSearchExecutor memberSearchExecutor;
 
     @GetMapping("/v1/members")
-    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
-        return memberJpaRepository.search(condition);
+    public CompletableFuture<List<MemberTeamDto>> searchMemberV1(MemberSearchCondition condition) {
+        return memberSearchExecutor.submit(() -> memberJpaRepository.search(condition));
+    }
+
+    /**
+     * 검색 결과 전체를 NDJSON(기본) 또는 CSV로 스트리밍
+     */
+    @GetMapping("/v1/members/stream")
+    public ResponseEntity<StreamingResponseBody> streamMemberV1(MemberSearchCondition condition,
+                                                                @RequestParam(defaultValue = "ndjson") String format,
+                                                                HttpServletRequest request) {
+        MemberExportFormat exportFormat = exportFormat(format);
+        StreamingResponseBody body = out -> memberExporter.export(condition, exportFormat, out);
+        StreamingTimeoutInterceptor.markStreaming(request);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .body(body);
+    }
+
+    /**
+     * 컬럼 단위 결과. JSON 은 /v1/members 와 같은 모양, Accept: application/x-member-columns 면 바이너리
+     * 최대 size 건까지만 응답한다, 전체가 필요하면 /v1/members/stream 을 쓴다.
+     */
+    @GetMapping("/v1/members/columns")
+    public CompletableFuture<MemberTeamColumns> searchMemberColumnsV1(MemberSearchCondition condition,
+                                                                      @RequestParam(defaultValue = "1000") int size) {
+        if (size < 1 || size > MAX_COLUMNS_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_COLUMNS_SIZE + ": " + size);
+        }
+        return memberSearchExecutor.submit(() -> memberRepository.searchColumns(condition, size));
     }
 
     @GetMapping("/v2/members")
-    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition,
-                                              Pageable pageable) {
-        return memberRepository.searchPageComplex(condition, pageable);
+    public CompletableFuture<Page<MemberTeamDto>> searchMemberV2(MemberSearchCondition condition,
+                                                                 Pageable pageable) {
+        return memberSearchExecutor.submit(() -> memberRepository.searchPageComplex(condition, pageable));
+    }
+
+    @GetMapping("/v3/members")
+    public KeysetSlice<MemberTeamDto> searchMemberV3(MemberSearchCondition condition,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "20") int size) {
+        return memberRepository.searchSlice(condition, decodeCursor(cursor, size));
+    }
+
+    private static MemberExportFormat exportFormat(String format) {
+        try {
+            return MemberExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unknown format: " + format, e);
+        }
+    }
+
+    // 잘못된 커서나 범위를 벗어난 size 는 클라이언트 오류
+    private static KeysetCursor decodeCursor(String cursor, int size) {
+        try {
+            return KeysetCursor.decode(cursor, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 }
@@ -0,0 +1,24 @@
+package study.querydsl.controller;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+public enum MemberExportFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+    private final MediaType mediaType;
+
+    MemberExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static MemberExportFormat from(String format) {
+        return valueOf(format.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,151 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.scan.MemberParallelScan;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 검색 결과를 한 건씩 읽으면서 바로 응답으로 쓴다. 결과 건수와 관계없이 메모리 사용량이 일정하다.
+ * StreamingResponseBody 는 요청 스레드가 아닌 곳에서 실행되므로 여기서 읽기 전용 트랜잭션을 직접 연다.
+ * 병렬 조회(member.search.scan.enabled)를 켜면 id 구간별로 동시에 읽고 id 순서대로 쓴다.
+ * 이때 메모리에는 미리 읽어둔 구간들만 올라간다. (구간 크기가 member.search.scan.chunk-size 로 제한되므로 최대 chunkSize * parallelism * 2 row)
+ */
+@Component
+public class MemberExporter {
+
+    private static final String CSV_HEADER = "memberId,username,age,teamId,teamName\n";
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final MemberParallelScan parallelScan;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+
+    public MemberExporter(MemberJpaRepository memberJpaRepository,
+                          MemberParallelScan parallelScan,
+                          PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.parallelScan = parallelScan;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        // row 마다 flush 하지 않고 JsonGenerator 버퍼가 찼을 때만 내보낸다.
+        this.rowWriter = objectMapper.writerFor(MemberTeamDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void export(MemberSearchCondition condition, MemberExportFormat format, OutputStream out) {
+        try (RowWriter writer = format == MemberExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out)) {
+            if (parallelScan.isEnabled()) {
+                parallelScan.forEachChunk(condition, MemberParallelScan.Merge.ORDERED, rows -> writeAll(rows.iterator(), writer));
+                return;
+            }
+
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<MemberTeamDto> rows = memberJpaRepository.searchStream(condition)) {
+                    writeAll(rows.iterator(), writer);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeAll(Iterator<MemberTeamDto> rows, RowWriter writer) {
+        try {
+            while (rows.hasNext()) {
+                writer.write(rows.next());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface RowWriter extends Closeable {
+        void write(MemberTeamDto row) throws IOException;
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(MemberTeamDto row) throws IOException {
+            rowWriter.writeValue(generator, row);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(CSV_HEADER);
+        }
+
+        @Override
+        public void write(MemberTeamDto row) throws IOException {
+            writer.write(csv(row.getMemberId()));
+            writer.write(',');
+            writer.write(csv(row.getUsername()));
+            writer.write(',');
+            writer.write(csv(row.getAge()));
+            writer.write(',');
+            writer.write(csv(row.getTeamId()));
+            writer.write(',');
+            writer.write(csv(row.getTeamName()));
+            writer.write('\n');
+        }
+
+        // 응답 스트림은 컨테이너가 닫으므로 flush 만 한다.
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,40 @@
+package study.querydsl.controller;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import study.querydsl.config.MemberSearchProperties;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.Callable;
+
+/**
+ * markStreaming 으로 표시한 요청만 비동기 처리 timeout 을 member.search.stream.timeout 으로 늘린다.
+ * 나머지 비동기 응답은 spring.mvc.async.request-timeout (없으면 서블릿 컨테이너 기본값) 을 따른다.
+ */
+@Component
+public class StreamingTimeoutInterceptor implements CallableProcessingInterceptor {
+
+    private static final String STREAMING = StreamingTimeoutInterceptor.class.getName() + ".STREAMING";
+
+    private final long timeoutMillis;
+
+    public StreamingTimeoutInterceptor(MemberSearchProperties properties) {
+        this.timeoutMillis = properties.getStream().getTimeout().toMillis();
+    }
+
+    public static void markStreaming(HttpServletRequest request) {
+        request.setAttribute(STREAMING, Boolean.TRUE);
+    }
+
+    // 비동기 처리가 시작되기 직전이라 아직 timeout 을 바꿀 수 있다.
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        if (request instanceof AsyncWebRequest
+                && Boolean.TRUE.equals(request.getAttribute(STREAMING, RequestAttributes.SCOPE_REQUEST))) {
+            ((AsyncWebRequest) request).setTimeout(timeoutMillis);
+        }
+    }
+}
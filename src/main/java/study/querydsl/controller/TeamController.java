@@ -0,0 +1,33 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.repository.TeamStatsRepository;
+import study.querydsl.repository.stats.TeamStatsRollup;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatsRepository teamStatsRepository;
+    // team.stats.rollup=false 면 없다.
+    private final ObjectProvider<TeamStatsRollup> teamStatsRollup;
+
+    /**
+     * 팀별 회원 수, 나이 합계/평균/최소/최대
+     * rollup 이 준비되어 있으면 팀 수 만큼만 읽고, 재집계 중이면 member 를 직접 group by 한다.
+     */
+    @GetMapping("/teams/stats")
+    public List<TeamStatsDto> teamStats(@RequestParam(required = false) String teamName) {
+        TeamStatsRollup rollup = teamStatsRollup.getIfAvailable();
+        return rollup != null && rollup.isReady()
+                ? teamStatsRepository.findStats(teamName)
+                : teamStatsRepository.aggregateStats(teamName);
+    }
+}
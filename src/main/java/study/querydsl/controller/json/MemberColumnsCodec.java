@@ -0,0 +1,181 @@
+package study.querydsl.controller.json;
+
+import study.querydsl.dto.MemberTeamColumns;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 내부 서비스용 컬럼 단위 바이너리 포맷 (application/x-member-columns)
+ * <pre>
+ * "MTC1" | rows(int)
+ * memberId long[rows]
+ * age null 비트맵 | age int[rows]
+ * team null 비트맵 | teamId long[rows]
+ * 팀 이름 사전: count(int), 문자열[count] | 팀 이름 코드 int[rows] (-1 = null)
+ * username 문자열[rows]
+ * 문자열 = 길이(int, -1 = null) + UTF-8 바이트
+ * </pre>
+ */
+public final class MemberColumnsCodec {
+
+    private static final int MAGIC = ('M' << 24) | ('T' << 16) | ('C' << 8) | '1';
+    // 읽을 때 스트림에 적힌 크기만 믿고 배열을 만들지 않도록 상한을 둔다.
+    static final int MAX_ROWS = 1_000_000;
+    static final int MAX_STRING_BYTES = 64 * 1024;
+
+    private MemberColumnsCodec() {
+    }
+
+    public static void write(MemberTeamColumns columns, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        int rows = columns.size();
+        data.writeInt(MAGIC);
+        data.writeInt(rows);
+
+        for (int row = 0; row < rows; row++) {
+            data.writeLong(columns.getMemberId(row));
+        }
+
+        writeBitmap(data, rows, columns::isAgeNull);
+        for (int row = 0; row < rows; row++) {
+            data.writeInt(columns.getAge(row));
+        }
+
+        writeBitmap(data, rows, row -> !columns.hasTeam(row));
+        for (int row = 0; row < rows; row++) {
+            data.writeLong(columns.getTeamId(row));
+        }
+
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        int[] teamCodes = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            String teamName = columns.getTeamName(row);
+            teamCodes[row] = teamName == null ? -1 : codes.computeIfAbsent(teamName, name -> {
+                dictionary.add(name);
+                return dictionary.size() - 1;
+            });
+        }
+        data.writeInt(dictionary.size());
+        for (String name : dictionary) {
+            writeString(data, name);
+        }
+        for (int code : teamCodes) {
+            data.writeInt(code);
+        }
+
+        for (int row = 0; row < rows; row++) {
+            writeString(data, columns.getUsername(row));
+        }
+        data.flush();
+    }
+
+    public static MemberTeamColumns read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("not a member columns stream");
+        }
+        int rows = checkSize(data.readInt(), MAX_ROWS, "rows");
+
+        long[] memberIds = new long[rows];
+        for (int row = 0; row < rows; row++) {
+            memberIds[row] = data.readLong();
+        }
+
+        boolean[] ageNulls = readBitmap(data, rows);
+        int[] ages = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            ages[row] = data.readInt();
+        }
+
+        boolean[] teamNulls = readBitmap(data, rows);
+        long[] teamIds = new long[rows];
+        for (int row = 0; row < rows; row++) {
+            teamIds[row] = data.readLong();
+        }
+
+        // 팀 이름 사전은 row 수보다 클 수 없다.
+        String[] dictionary = new String[checkSize(data.readInt(), rows, "team names")];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(data);
+        }
+        int[] teamCodes = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            teamCodes[row] = data.readInt();
+            if (teamCodes[row] < -1 || teamCodes[row] >= dictionary.length) {
+                throw new IOException("invalid team name code: " + teamCodes[row]);
+            }
+        }
+
+        MemberTeamColumns columns = new MemberTeamColumns(rows);
+        for (int row = 0; row < rows; row++) {
+            columns.add(memberIds[row], readString(data), ages[row], ageNulls[row],
+                    teamIds[row], teamNulls[row], teamCodes[row] < 0 ? null : dictionary[teamCodes[row]]);
+        }
+        return columns;
+    }
+
+    private static int checkSize(int size, int max, String name) throws IOException {
+        if (size < 0 || size > max) {
+            throw new IOException("invalid " + name + ": " + size + " (max " + max + ")");
+        }
+        return size;
+    }
+
+    private interface RowPredicate {
+        boolean test(int row);
+    }
+
+    private static void writeBitmap(DataOutputStream data, int rows, RowPredicate predicate) throws IOException {
+        for (int from = 0; from < rows; from += 8) {
+            int bits = 0;
+            for (int bit = 0; bit < 8 && from + bit < rows; bit++) {
+                if (predicate.test(from + bit)) {
+                    bits |= 1 << bit;
+                }
+            }
+            data.writeByte(bits);
+        }
+    }
+
+    private static boolean[] readBitmap(DataInputStream data, int rows) throws IOException {
+        boolean[] result = new boolean[rows];
+        for (int from = 0; from < rows; from += 8) {
+            int bits = data.readUnsignedByte();
+            for (int bit = 0; bit < 8 && from + bit < rows; bit++) {
+                result[from + bit] = (bits & (1 << bit)) != 0;
+            }
+        }
+        return result;
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length == -1) {
+            return null;
+        }
+        checkSize(length, MAX_STRING_BYTES, "string bytes");
+        byte[] bytes = new byte[length];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
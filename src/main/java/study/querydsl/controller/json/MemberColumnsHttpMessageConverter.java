@@ -0,0 +1,80 @@
+package study.querydsl.controller.json;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Accept: application/x-member-columns 요청에 MemberTeamColumns, List / Page 의 MemberTeamDto 를 바이너리 컬럼 포맷으로 응답
+ * Page 면 전체 건수를 X-Total-Count 헤더로 보낸다.
+ * Accept 가 없거나 와일드카드면 JSON 으로 응답하도록 WebMvcConfig 에서 JSON 컨버터 뒤에 등록한다.
+ */
+public class MemberColumnsHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType MEMBER_COLUMNS = new MediaType("application", "x-member-columns");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public MemberColumnsHttpMessageConverter() {
+        super(MEMBER_COLUMNS);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return MemberTeamColumns.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        // mediaType 이 null 이면 응답 가능한 타입 목록을 만드는 중이므로 타입만 본다.
+        if (mediaType != null && (!canWrite(mediaType) || mediaType.isWildcardType())) {
+            return false;
+        }
+        ResolvableType resolved = type == null ? ResolvableType.forClass(clazz) : ResolvableType.forType(type);
+        if (MemberTeamColumns.class.isAssignableFrom(resolved.toClass())) {
+            return true;
+        }
+        boolean container = Collection.class.isAssignableFrom(resolved.toClass()) || Page.class.isAssignableFrom(resolved.toClass());
+        return container && MemberTeamDto.class.isAssignableFrom(resolved.getGeneric(0).toClass());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        MemberTeamColumns columns;
+        if (body instanceof MemberTeamColumns) {
+            columns = (MemberTeamColumns) body;
+        } else if (body instanceof Page) {
+            Page<MemberTeamDto> page = (Page<MemberTeamDto>) body;
+            outputMessage.getHeaders().set("X-Total-Count", String.valueOf(page.getTotalElements()));
+            columns = MemberTeamColumns.of(page.getContent());
+        } else {
+            columns = MemberTeamColumns.of((Collection<MemberTeamDto>) body);
+        }
+
+        OutputStream out = new BufferedOutputStream(outputMessage.getBody(), BUFFER_SIZE);
+        MemberColumnsCodec.write(columns, out);
+        out.flush();
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return MemberColumnsCodec.read(inputMessage.getBody());
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return MemberColumnsCodec.read(inputMessage.getBody());
+    }
+}
@@ -0,0 +1,19 @@
+package study.querydsl.controller.json;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+
+/**
+ * 회원 검색 응답용 Jackson 모듈, 스프링 부트가 Module 빈을 ObjectMapper 에 등록한다.
+ */
+@Component
+public class MemberJsonModule extends SimpleModule {
+
+    public MemberJsonModule() {
+        super("member-json");
+        addSerializer(MemberTeamDto.class, new MemberTeamDtoSerializer());
+        addSerializer(MemberTeamColumns.class, new MemberTeamColumnsSerializer());
+    }
+}
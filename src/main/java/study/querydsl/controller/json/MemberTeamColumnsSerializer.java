@@ -0,0 +1,53 @@
+package study.querydsl.controller.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import study.querydsl.dto.MemberTeamColumns;
+
+import java.io.IOException;
+
+import static study.querydsl.controller.json.MemberTeamDtoSerializer.AGE;
+import static study.querydsl.controller.json.MemberTeamDtoSerializer.MEMBER_ID;
+import static study.querydsl.controller.json.MemberTeamDtoSerializer.TEAM_ID;
+import static study.querydsl.controller.json.MemberTeamDtoSerializer.TEAM_NAME;
+import static study.querydsl.controller.json.MemberTeamDtoSerializer.USERNAME;
+
+/**
+ * MemberTeamColumns 를 List<MemberTeamDto> 와 같은 JSON 배열로 쓴다. (row 별 DTO 를 만들지 않음)
+ */
+public class MemberTeamColumnsSerializer extends StdSerializer<MemberTeamColumns> {
+
+    public MemberTeamColumnsSerializer() {
+        super(MemberTeamColumns.class);
+    }
+
+    @Override
+    public void serialize(MemberTeamColumns columns, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        int size = columns.size();
+        gen.writeStartArray(columns, size);
+        for (int row = 0; row < size; row++) {
+            gen.writeStartObject();
+            gen.writeFieldName(MEMBER_ID);
+            gen.writeNumber(columns.getMemberId(row));
+            gen.writeFieldName(USERNAME);
+            gen.writeString(columns.getUsername(row));
+            gen.writeFieldName(AGE);
+            if (columns.isAgeNull(row)) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(columns.getAge(row));
+            }
+            gen.writeFieldName(TEAM_ID);
+            if (columns.hasTeam(row)) {
+                gen.writeNumber(columns.getTeamId(row));
+            } else {
+                gen.writeNull();
+            }
+            gen.writeFieldName(TEAM_NAME);
+            gen.writeString(columns.getTeamName(row));
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+}
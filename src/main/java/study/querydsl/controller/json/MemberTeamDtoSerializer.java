@@ -0,0 +1,58 @@
+package study.querydsl.controller.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+
+/**
+ * 리플렉션(BeanSerializer) 없이 MemberTeamDto 를 쓴다.
+ * 필드 이름은 SerializedString 으로 한 번만 인코딩해 두고 generator 버퍼에 그대로 복사한다.
+ */
+public class MemberTeamDtoSerializer extends StdSerializer<MemberTeamDto> {
+
+    static final SerializedString MEMBER_ID = new SerializedString("memberId");
+    static final SerializedString USERNAME = new SerializedString("username");
+    static final SerializedString AGE = new SerializedString("age");
+    static final SerializedString TEAM_ID = new SerializedString("teamId");
+    static final SerializedString TEAM_NAME = new SerializedString("teamName");
+
+    public MemberTeamDtoSerializer() {
+        super(MemberTeamDto.class);
+    }
+
+    @Override
+    public void serialize(MemberTeamDto dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(dto);
+        gen.writeFieldName(MEMBER_ID);
+        writeNumber(gen, dto.getMemberId());
+        gen.writeFieldName(USERNAME);
+        gen.writeString(dto.getUsername());
+        gen.writeFieldName(AGE);
+        writeNumber(gen, dto.getAge());
+        gen.writeFieldName(TEAM_ID);
+        writeNumber(gen, dto.getTeamId());
+        gen.writeFieldName(TEAM_NAME);
+        gen.writeString(dto.getTeamName());
+        gen.writeEndObject();
+    }
+
+    static void writeNumber(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    static void writeNumber(JsonGenerator gen, Integer value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+}
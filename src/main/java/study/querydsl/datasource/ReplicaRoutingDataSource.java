@@ -0,0 +1,54 @@
+package study.querydsl.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 읽기 전용 트랜잭션은 replica 로, 그 외(쓰기, 벌크 update/delete, 트랜잭션 밖 호출)는 primary 로 보낸다.
+ * 트랜잭션 시작 시점이 아니라 첫 SQL 실행 시점에 커넥션을 얻어야 readOnly 여부를 알 수 있으므로
+ * LazyConnectionDataSourceProxy 로 감싸서 사용한다.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaSelector replicaSelector;
+    private final List<DataSource> targets = new ArrayList<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReplicaSelector replicaSelector) {
+        this.replicaSelector = replicaSelector;
+
+        Map<Object, Object> targetDataSources = new HashMap<>(replicas);
+        targetDataSources.put(PRIMARY, primary);
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        targets.add(primary);
+        targets.addAll(replicas.values());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return replicaSelector.select().orElse(PRIMARY);
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public void close() throws Exception {
+        replicaSelector.close();
+        for (DataSource target : targets) {
+            if (target instanceof AutoCloseable) {
+                ((AutoCloseable) target).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package study.querydsl.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션이 사용할 replica 를 round-robin 으로 고른다.
+ * 주기적으로 replica 상태(연결 가능 여부, 복제 지연)를 확인해서 문제가 있는 replica 는 건너뛰고,
+ * 사용할 수 있는 replica 가 없으면 empty 를 돌려줘서 primary 로 보내게 한다.
+ */
+@Slf4j
+public class ReplicaSelector implements AutoCloseable {
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final Duration maxLag;
+    private final String lagQuery;
+
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaSelector(Map<String, DataSource> replicas, Duration maxLag, String lagQuery) {
+        replicas.forEach((key, dataSource) -> this.replicas.add(new Replica(key, dataSource)));
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+    }
+
+    public Optional<String> select() {
+        int size = replicas.size();
+        int start = Math.floorMod(sequence.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return Optional.of(replica.key);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void start(Duration interval) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkHealth, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try {
+                double lagSeconds = lagSeconds(replica.dataSource);
+                healthy = lagSeconds * 1000 <= maxLag.toMillis();
+                if (!healthy) {
+                    log.warn("replica {} is lagging {}s behind primary", replica.key, lagSeconds);
+                }
+            } catch (SQLException | RuntimeException e) {
+                log.warn("replica {} health check failed", replica.key, e);
+                healthy = false;
+            }
+
+            if (replica.healthy != healthy) {
+                log.info("replica {} is now {}", replica.key, healthy ? "in service" : "out of service");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    private double lagSeconds(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            if (lagQuery == null || lagQuery.isBlank()) {
+                return connection.isValid(1) ? 0 : Double.MAX_VALUE;
+            }
+
+            try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                return resultSet.next() ? resultSet.getDouble(1) : 0;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static class Replica {
+        private final String key;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package study.querydsl.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * member.datasource.routing.enabled=true 일 때 spring.datasource 대신
+ * member.datasource.primary / replicas 로 primary-replica 라우팅 DataSource 를 만든다.
+ * 풀 설정은 spring.datasource.hikari (oltp / export / bulk-load 프로파일) 를 그대로 쓰고,
+ * 풀마다 hikaricp.* 메트릭을 pool 태그(primary, replica-N)로 등록한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "member.datasource.routing", name = "enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariConfig routingPoolTemplate() {
+        return new HikariConfig();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(RoutingDataSourceProperties properties,
+                                                             HikariConfig routingPoolTemplate,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        RoutingDataSourceProperties.Routing routing = properties.getRouting();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<RoutingDataSourceProperties.Node> nodes = properties.getReplicas();
+        for (int i = 0; i < nodes.size(); i++) {
+            replicas.put("replica-" + i, hikari("replica-" + i, nodes.get(i), true, routingPoolTemplate, registry));
+        }
+
+        ReplicaSelector replicaSelector = new ReplicaSelector(replicas, routing.getMaxLag(), routing.getLagQuery());
+        replicaSelector.start(routing.getHealthCheckInterval());
+
+        HikariDataSource primary = hikari("primary", properties.getPrimary(), false, routingPoolTemplate, registry);
+        return new ReplicaRoutingDataSource(primary, replicas, replicaSelector);
+    }
+
+    @Primary
+    @Bean
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    private static HikariDataSource hikari(String name, RoutingDataSourceProperties.Node node, boolean readOnly,
+                                           HikariConfig template, MeterRegistry registry) {
+        HikariConfig config = new HikariConfig();
+        template.copyStateTo(config);
+        config.setJdbcUrl(node.getUrl());
+        config.setUsername(node.getUsername());
+        config.setPassword(node.getPassword());
+        config.setDriverClassName(node.getDriverClassName());
+        config.setPoolName(name);
+        config.setReadOnly(readOnly);
+        if (node.getMaximumPoolSize() > 0) {
+            config.setMaximumPoolSize(node.getMaximumPoolSize());
+        }
+        if (registry != null) {
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+        return new HikariDataSource(config);
+    }
+}
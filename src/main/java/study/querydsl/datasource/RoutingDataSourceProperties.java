@@ -0,0 +1,39 @@
+package study.querydsl.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "member.datasource")
+public class RoutingDataSourceProperties {
+
+    private final Routing routing = new Routing();
+    private Node primary = new Node();
+    private List<Node> replicas = new ArrayList<>();
+
+    @Getter @Setter
+    public static class Routing {
+        private boolean enabled = false;
+        // 이 값보다 복제 지연이 크면 해당 replica 는 잠시 제외
+        private Duration maxLag = Duration.ofSeconds(5);
+        // 복제 지연(초)을 돌려주는 SQL, 비워두면 연결 가능 여부만 확인 (예: PostgreSQL
+        // select coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0))
+        private String lagQuery;
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+    }
+
+    @Getter @Setter
+    public static class Node {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        // 0 이면 spring.datasource.hikari.maximum-pool-size
+        private int maximumPoolSize = 0;
+    }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * member.id 기준 keyset(seek) 페이징 커서
+ * 클라이언트에는 내부 구조를 알 수 없는 토큰 형태로만 노출한다.
+ */
+@Getter
+public class KeysetCursor {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 1000;
+
+    private static final String VERSION = "v1:";
+
+    // 직전 페이지의 마지막 member.id, 첫 페이지면 null
+    private final Long lastId;
+    private final int size;
+
+    private KeysetCursor(Long lastId, int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SIZE + ": " + size);
+        }
+        this.lastId = lastId;
+        this.size = size;
+    }
+
+    public static KeysetCursor first(int size) {
+        return new KeysetCursor(null, size);
+    }
+
+    public static KeysetCursor decode(String token, int size) {
+        if (!hasText(token)) {
+            return first(size);
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(VERSION)) {
+                throw new IllegalArgumentException("invalid cursor: " + token);
+            }
+            return new KeysetCursor(Long.valueOf(decoded.substring(VERSION.length())), size);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid cursor: " + token, e);
+        }
+    }
+
+    public KeysetCursor next(Long lastId) {
+        return new KeysetCursor(lastId, size);
+    }
+
+    // 첫 페이지는 커서 없이 요청하므로 null
+    public String encode() {
+        if (isFirst()) {
+            return null;
+        }
+        String raw = VERSION + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class KeysetSlice<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    // 다음 페이지 요청 시 cursor 파라미터로 그대로 넘기는 토큰, 마지막 페이지면 null
+    private final String nextCursor;
+
+    public KeysetSlice(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,36 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * 벌크 update / delete 진행 상황 (chunk 가 커밋될 때마다, 끝났을 때)
+ * lastId 까지는 커밋되었으므로 중단되면 lastId 다음부터 이어서 실행할 수 있다.
+ */
+@Getter
+@ToString
+public class MemberBulkResult {
+
+    private final String operation;
+    private final long rows;
+    private final long chunks;
+    private final long lastId;
+    private final boolean completed;
+    private final Duration elapsed;
+
+    public MemberBulkResult(String operation, long rows, long chunks, long lastId, boolean completed, Duration elapsed) {
+        this.operation = operation;
+        this.rows = rows;
+        this.chunks = chunks;
+        this.lastId = lastId;
+        this.completed = completed;
+        this.elapsed = elapsed;
+    }
+
+    public double getRowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,24 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+@Getter
+@ToString
+public class MemberImportResult {
+
+    private final long rows;
+    private final Duration elapsed;
+
+    public MemberImportResult(long rows, Duration elapsed) {
+        this.rows = rows;
+        this.elapsed = elapsed;
+    }
+
+    public double getRowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,20 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class MemberImportRow {
+
+    private final String username;
+    private final Integer age;
+    // null 이면 팀 없는 회원
+    private final String teamName;
+
+    public MemberImportRow(String username, Integer age, String teamName) {
+        this.username = username;
+        this.age = age;
+        this.teamName = teamName;
+    }
+}
@@ -2,10 +2,29 @@ package study.querydsl.dto;
 
 import lombok.Data;
 
+import static org.springframework.util.StringUtils.hasText;
+
 @Data
 public class MemberSearchCondition {
     private String username;
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
+
+    /**
+     * 검색에 실제로 쓰이지 않는 값(빈 문자열 등)을 null로 정리한 복사본
+     * 캐시 키처럼 조건의 동등성을 비교할 때 사용
+     */
+    public MemberSearchCondition normalized() {
+        MemberSearchCondition normalized = new MemberSearchCondition();
+        normalized.setUsername(hasText(username) ? username : null);
+        normalized.setTeamName(hasText(teamName) ? teamName : null);
+        normalized.setAgeGoe(ageGoe);
+        normalized.setAgeLoe(ageLoe);
+        return normalized;
+    }
+
+    public boolean hasNoFilter() {
+        return !hasText(username) && !hasText(teamName) && ageGoe == null && ageLoe == null;
+    }
 }
@@ -0,0 +1,118 @@
+package study.querydsl.dto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * MemberTeamDto 목록을 컬럼별 primitive 배열로 담은 결과
+ * row 마다 DTO 와 박싱된 Long / Integer 를 만들지 않으므로 큰 결과를 그대로 집계하거나 직렬화할 때 쓴다.
+ * (username, teamName 은 드라이버가 row 마다 String 을 만들고, 배열이 차면 두 배 크기로 복사한다.)
+ */
+public class MemberTeamColumns {
+
+    private int size;
+    private long[] memberIds;
+    private String[] usernames;
+    private int[] ages;
+    private long[] teamIds;
+    private String[] teamNames;
+    // age, team 이 null 인 row
+    private final BitSet nullAges = new BitSet();
+    private final BitSet noTeams = new BitSet();
+
+    public MemberTeamColumns(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.memberIds = new long[capacity];
+        this.usernames = new String[capacity];
+        this.ages = new int[capacity];
+        this.teamIds = new long[capacity];
+        this.teamNames = new String[capacity];
+    }
+
+    public static MemberTeamColumns of(Collection<MemberTeamDto> dtos) {
+        MemberTeamColumns columns = new MemberTeamColumns(dtos.size());
+        for (MemberTeamDto dto : dtos) {
+            columns.add(dto.getMemberId(), dto.getUsername(),
+                    dto.getAge() == null ? 0 : dto.getAge(), dto.getAge() == null,
+                    dto.getTeamId() == null ? 0 : dto.getTeamId(), dto.getTeamId() == null,
+                    dto.getTeamName());
+        }
+        return columns;
+    }
+
+    public void add(long memberId, String username, int age, boolean ageNull, long teamId, boolean teamNull, String teamName) {
+        if (size == memberIds.length) {
+            int capacity = size * 2;
+            memberIds = Arrays.copyOf(memberIds, capacity);
+            usernames = Arrays.copyOf(usernames, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            teamIds = Arrays.copyOf(teamIds, capacity);
+            teamNames = Arrays.copyOf(teamNames, capacity);
+        }
+
+        memberIds[size] = memberId;
+        usernames[size] = username;
+        ages[size] = age;
+        teamIds[size] = teamId;
+        teamNames[size] = teamName;
+        if (ageNull) {
+            nullAges.set(size);
+        }
+        if (teamNull) {
+            noTeams.set(size);
+        }
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getMemberId(int row) {
+        return memberIds[row];
+    }
+
+    public String getUsername(int row) {
+        return usernames[row];
+    }
+
+    public boolean isAgeNull(int row) {
+        return nullAges.get(row);
+    }
+
+    public int getAge(int row) {
+        return ages[row];
+    }
+
+    public boolean hasTeam(int row) {
+        return !noTeams.get(row);
+    }
+
+    public long getTeamId(int row) {
+        return teamIds[row];
+    }
+
+    public String getTeamName(int row) {
+        return teamNames[row];
+    }
+
+    public MemberTeamDto get(int row) {
+        return new MemberTeamDto(
+                memberIds[row],
+                usernames[row],
+                isAgeNull(row) ? null : ages[row],
+                hasTeam(row) ? teamIds[row] : null,
+                teamNames[row]);
+    }
+
+    public List<MemberTeamDto> toDtos() {
+        List<MemberTeamDto> result = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            result.add(get(row));
+        }
+        return result;
+    }
+}
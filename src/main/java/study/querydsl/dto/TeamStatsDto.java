@@ -0,0 +1,33 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class TeamStatsDto {
+
+    private Long teamId;
+    private String teamName;
+    private long memberCount;
+    // 나이가 있는 회원 수 (ageSum / ageCount = ageAvg)
+    private long ageCount;
+    private long ageSum;
+    // 나이가 있는 회원이 없으면 null
+    private Double ageAvg;
+    private Integer ageMin;
+    private Integer ageMax;
+
+    @QueryProjection
+    public TeamStatsDto(Long teamId, String teamName, Long memberCount, Long ageCount, Long ageSum, Integer ageMin, Integer ageMax) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.memberCount = memberCount == null ? 0 : memberCount;
+        this.ageCount = ageCount == null ? 0 : ageCount;
+        this.ageSum = ageSum == null ? 0 : ageSum;
+        this.ageAvg = this.ageCount == 0 ? null : (double) this.ageSum / this.ageCount;
+        this.ageMin = ageMin;
+        this.ageMax = ageMax;
+    }
+}
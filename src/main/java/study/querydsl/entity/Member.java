@@ -8,17 +8,31 @@ import lombok.ToString;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 
 @ToString(exclude = {"team"})
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Entity
+// search() 조건별 인덱스 (MemberSearchShape.requiredIndexes 참고)
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),
+        @Index(name = "idx_member_age", columnList = "age")
+})
 public class Member {
 
+    // 시퀀스 한 번 호출로 ID_ALLOCATION_SIZE 개의 id를 확보 (pooled-lo)
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq")
+    @SequenceGenerator(name = "member_seq", sequenceName = "member_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String username;
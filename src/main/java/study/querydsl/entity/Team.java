@@ -4,11 +4,19 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,13 +24,21 @@ import java.util.List;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Getter
 @Entity
+// 팀은 거의 바뀌지 않으므로 2차 캐시(team region)에 올린다. member.getTeam() 프록시 초기화도 캐시에서 끝난다.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
 public class Team {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq")
+    @SequenceGenerator(name = "team_seq", sequenceName = "team_seq", allocationSize = 50)
     private Long id;
 
     private String name;
 
+    // 지연 로딩 시 영속성 컨텍스트에 있는 다른 팀의 members 도 최대 100개 팀까지 한 번에 가져온다.
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "team")
     List<Member> members = new ArrayList<>();
 
@@ -0,0 +1,48 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * 팀별 회원 집계 rollup (회원 수, 나이 합계/최소/최대)
+ * 회원 변경이 커밋된 뒤 TeamStatsRollup 이 team_stats_delta 에 쌓인 증분으로 갱신한다.
+ * ageCount 는 나이가 있는 회원 수, 평균은 ageSum / ageCount
+ */
+@ToString
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Entity
+@Table(name = "team_stats")
+public class TeamStats {
+
+    @Id
+    private Long teamId;
+
+    private String teamName;
+
+    private long memberCount;
+    private long ageCount;
+    private long ageSum;
+    private Integer ageMin;
+    private Integer ageMax;
+
+    public TeamStats(Long teamId, String teamName) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+    }
+
+    public void update(String teamName, long memberCount, long ageCount, long ageSum, Integer ageMin, Integer ageMax) {
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.ageCount = ageCount;
+        this.ageSum = ageSum;
+        this.ageMin = ageMin;
+        this.ageMax = ageMax;
+    }
+}
@@ -0,0 +1,50 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * 아직 team_stats 에 반영하지 않은 팀별 변경 (outbox)
+ * 회원/팀 변경과 같은 트랜잭션에서 TeamStatsRollup 이 JDBC 로 추가하고, 커밋 후 반영하면서 지운다.
+ * MEMBERS 는 회원 수/나이 증감분, 나머지는 팀 row 를 team 에서 다시 읽으라는 표시
+ */
+@ToString
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Entity
+@Table(name = "team_stats_delta", indexes = @Index(name = "idx_team_stats_delta_team", columnList = "team_id"))
+public class TeamStatsDelta {
+
+    public enum Kind {
+        MEMBERS, CREATE, RENAME, DELETE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long teamId;
+
+    @Enumerated(EnumType.STRING)
+    private Kind kind;
+
+    private long memberCount;
+    private long ageCount;
+    private long ageSum;
+    // 추가된 회원 나이의 최소/최대
+    private Integer ageMin;
+    private Integer ageMax;
+    // 나이가 있는 회원이 빠졌으면 최소/최대를 다시 구한다.
+    private boolean removedAge;
+}
@@ -0,0 +1,23 @@
+package study.querydsl.jdbc;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * 등록된 SqlStatementListener 빈들에게 실행될 SQL을 전달한다. SQL 자체는 변경하지 않는다.
+ * 리스너가 JPA 관련 빈에 의존해도 순환 참조가 생기지 않도록 리스너는 실행 시점에 조회한다.
+ */
+public class SqlStatementInspector implements StatementInspector {
+
+    private final ObjectProvider<SqlStatementListener> listeners;
+
+    public SqlStatementInspector(ObjectProvider<SqlStatementListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        listeners.forEach(listener -> listener.onStatement(sql));
+        return sql;
+    }
+}
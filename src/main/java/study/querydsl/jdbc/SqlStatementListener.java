@@ -0,0 +1,10 @@
+package study.querydsl.jdbc;
+
+/**
+ * Hibernate가 JDBC로 보내기 직전의 SQL을 전달받는 리스너
+ * 엔티티 persist/update/remove 뿐 아니라 Querydsl 벌크 update/delete도 모두 이 경로를 지난다.
+ */
+public interface SqlStatementListener {
+
+    void onStatement(String sql);
+}
@@ -0,0 +1,105 @@
+package study.querydsl.jdbc;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 현재 스레드에서 실행된 SQL 을 구간(Recording) 단위로 기록한다.
+ * 구간은 중첩될 수 있고, 안쪽 구간에서 실행된 SQL 은 바깥 구간에도 함께 기록된다.
+ * 다른 스레드로 넘기는 작업은 wrap 으로 감싸야 호출한 스레드의 구간에 기록된다.
+ */
+@Component
+public class SqlStatementRecorder implements SqlStatementListener {
+
+    private final ThreadLocal<Recording> current = new ThreadLocal<>();
+
+    /**
+     * @param maxCapturedStatements SQL 원문을 보관할 최대 개수, 실행 횟수는 제한 없이 센다.
+     */
+    public Recording start(int maxCapturedStatements) {
+        Recording recording = new Recording(current.get(), maxCapturedStatements);
+        current.set(recording);
+        return recording;
+    }
+
+    /**
+     * task 를 실행하는 동안 그 스레드의 구간을 지금 스레드의 구간으로 바꾼다.
+     * 지금 진행 중인 구간이 없으면 task 를 그대로 반환한다.
+     */
+    public <T> Callable<T> wrap(Callable<T> task) {
+        Recording captured = current.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            Recording previous = current.get();
+            current.set(captured);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private void restore(Recording previous) {
+        if (previous == null) {
+            current.remove();
+        } else {
+            current.set(previous);
+        }
+    }
+
+    @Override
+    public void onStatement(String sql) {
+        for (Recording recording = current.get(); recording != null; recording = recording.parent) {
+            recording.record(sql);
+        }
+    }
+
+    // wrap 으로 다른 스레드와 함께 쓸 수 있으므로 기록, 조회는 동기화한다.
+    public class Recording implements AutoCloseable {
+
+        private final Recording parent;
+        private final int maxCapturedStatements;
+        private final List<String> statements = new ArrayList<>();
+        // 같은 SQL 이 몇 번 실행됐는지 (파라미터는 ? 로 남아 있으므로 lazy 로딩 반복은 같은 문자열이 된다)
+        private final Map<String, Integer> counts = new HashMap<>();
+        private int count;
+
+        private Recording(Recording parent, int maxCapturedStatements) {
+            this.parent = parent;
+            this.maxCapturedStatements = maxCapturedStatements;
+        }
+
+        private synchronized void record(String sql) {
+            count++;
+            counts.merge(sql, 1, Integer::sum);
+            if (statements.size() < maxCapturedStatements) {
+                statements.add(sql);
+            }
+        }
+
+        public synchronized int getCount() {
+            return count;
+        }
+
+        public synchronized List<String> getStatements() {
+            return List.copyOf(statements);
+        }
+
+        public synchronized Map<String, Integer> getStatementCounts() {
+            return Map.copyOf(counts);
+        }
+
+        @Override
+        public void close() {
+            restore(parent);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package study.querydsl.jdbc;
+
+import lombok.Getter;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * insert / update / delete SQL에서 대상 테이블을 뽑아낸다.
+ */
+@Getter
+public class SqlWriteStatement {
+
+    private static final Pattern WRITE = Pattern.compile(
+            "^\\s*(?:/\\*.*?\\*/\\s*)?(insert\\s+into|update|delete\\s+from|delete)\\s+([\\w.]+)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    public enum Operation {
+        INSERT, UPDATE, DELETE
+    }
+
+    private final Operation operation;
+    // 스키마가 붙어 있으면 제거한 소문자 테이블명
+    private final String table;
+
+    private SqlWriteStatement(Operation operation, String table) {
+        this.operation = operation;
+        this.table = table;
+    }
+
+    public static Optional<SqlWriteStatement> parse(String sql) {
+        Matcher matcher = WRITE.matcher(sql);
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+
+        String keyword = matcher.group(1).toLowerCase(Locale.ROOT);
+        Operation operation = keyword.startsWith("insert") ? Operation.INSERT
+                : keyword.startsWith("update") ? Operation.UPDATE
+                : Operation.DELETE;
+
+        String table = matcher.group(2).toLowerCase(Locale.ROOT);
+        int schemaEnd = table.lastIndexOf('.');
+        return Optional.of(new SqlWriteStatement(operation, schemaEnd < 0 ? table : table.substring(schemaEnd + 1)));
+    }
+
+    public boolean isOn(String... tables) {
+        for (String candidate : tables) {
+            if (table.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,77 @@
+package study.querydsl.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import study.querydsl.jdbc.SqlStatementRecorder;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 한 구간(요청, 테스트 등)에서 같은 select 가 반복 실행됐는지 확인한다.
+ * member.getTeam().getName() 처럼 목록을 돌며 lazy 로딩하면 같은 SQL 이 회원 수만큼 찍힌다.
+ */
+@Slf4j
+@Component
+public class NPlusOneDetector {
+
+    private final SqlStatementRecorder statementRecorder;
+    private final NPlusOneProperties properties;
+    private final Counter detected;
+
+    public NPlusOneDetector(SqlStatementRecorder statementRecorder,
+                            NPlusOneProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.statementRecorder = statementRecorder;
+        this.properties = properties;
+        this.detected = Counter.builder("member.n-plus-one.detected").register(meterRegistry);
+    }
+
+    public SqlStatementRecorder.Recording start() {
+        return statementRecorder.start(0);
+    }
+
+    /**
+     * @return threshold 이상 반복된 select 와 실행 횟수
+     */
+    public Map<String, Integer> repeatedSelects(SqlStatementRecorder.Recording recording) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        recording.getStatementCounts().forEach((sql, count) -> {
+            if (count >= properties.getThreshold() && isSelect(sql)) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+
+    /**
+     * N+1 이 있으면 설정에 따라 로그를 남기거나 예외를 던진다.
+     */
+    public void verify(SqlStatementRecorder.Recording recording, String description) {
+        verify(recording, description, true);
+    }
+
+    /**
+     * @param mayFail false 면 fail-on-detection 이어도 로그, 메트릭만 남긴다. (이미 응답이 나간 경우 등)
+     */
+    public void verify(SqlStatementRecorder.Recording recording, String description, boolean mayFail) {
+        Map<String, Integer> repeated = repeatedSelects(recording);
+        if (repeated.isEmpty()) {
+            return;
+        }
+
+        detected.increment();
+        String message = "N+1 select detected in " + description + ": " + repeated;
+        if (properties.isFailOnDetection() && mayFail) {
+            throw new IllegalStateException(message);
+        }
+        log.warn(message);
+    }
+
+    private static boolean isSelect(String sql) {
+        return sql.trim().toLowerCase(Locale.ROOT).startsWith("select");
+    }
+}
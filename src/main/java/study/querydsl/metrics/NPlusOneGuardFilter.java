@@ -0,0 +1,84 @@
+package study.querydsl.metrics;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import study.querydsl.jdbc.SqlStatementRecorder;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 샘플링된 요청마다 실행된 SQL 을 세서 N+1 패턴을 찾는다.
+ */
+@Component
+public class NPlusOneGuardFilter extends OncePerRequestFilter {
+
+    private final NPlusOneDetector detector;
+    private final NPlusOneProperties properties;
+
+    public NPlusOneGuardFilter(NPlusOneDetector detector, NPlusOneProperties properties) {
+        this.detector = detector;
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String description = request.getMethod() + " " + request.getRequestURI();
+        SqlStatementRecorder.Recording recording = detector.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            recording.close();
+        }
+
+        // 비동기 요청(MemberSearchExecutor ASYNC 등)은 작업 스레드의 SQL 도 이 구간에 기록되므로 요청이 끝난 뒤 검사한다.
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new VerifyOnComplete(recording, description));
+            return;
+        }
+        // 응답이 이미 커밋됐으면 예외를 던져도 클라이언트는 잘린 200 을 받으므로 로그, 메트릭만 남긴다.
+        detector.verify(recording, description, !response.isCommitted());
+    }
+
+    // 비동기 요청은 응답이 이미 나간 뒤이므로 로그, 메트릭만 남긴다.
+    private class VerifyOnComplete implements AsyncListener {
+
+        private final SqlStatementRecorder.Recording recording;
+        private final String description;
+
+        VerifyOnComplete(SqlStatementRecorder.Recording recording, String description) {
+            this.recording = recording;
+            this.description = description;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            detector.verify(recording, description, false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package study.querydsl.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "member.n-plus-one")
+public class NPlusOneProperties {
+
+    private boolean enabled = true;
+    // 검사할 요청 비율 (0.0 ~ 1.0), 테스트에서는 1.0
+    private double sampleRate = 0.01;
+    // 한 요청에서 같은 select 가 이 횟수 이상 실행되면 N+1 로 판단
+    private int threshold = 5;
+    // true 면 로그 대신 예외를 던진다. (테스트용, 응답이 아직 커밋되지 않은 경우만)
+    private boolean failOnDetection = false;
+}
@@ -0,0 +1,121 @@
+package study.querydsl.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.KeysetSlice;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.jdbc.SqlStatementRecorder;
+import study.querydsl.repository.MemberSearchShape;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 검색 repository 호출마다 메서드, 검색 조건 형태(shape) 별로
+ * 지연시간, 조회 row 수, 실행된 JDBC statement 수(N+1 확인용)를 기록한다.
+ */
+@Slf4j
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final SqlStatementRecorder statementRecorder;
+    private final RepositoryMetricsProperties properties;
+
+    public RepositoryMetricsAspect(MeterRegistry meterRegistry,
+                                   SqlStatementRecorder statementRecorder,
+                                   RepositoryMetricsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.statementRecorder = statementRecorder;
+        this.properties = properties;
+    }
+
+    @Around("execution(public * study.querydsl.repository.MemberRepositoryImpl.*(..))"
+            + " || execution(public * study.querydsl.repository.MemberJpaRepository.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        MemberSearchCondition condition = conditionOf(joinPoint.getArgs());
+        Tags tags = Tags.of(
+                "repository", joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                "method", joinPoint.getSignature().getName(),
+                "shape", condition == null ? "n/a" : MemberSearchShape.of(condition).getName()
+        );
+
+        String outcome = "success";
+        long start = System.nanoTime();
+        try (SqlStatementRecorder.Recording recording = statementRecorder.start(properties.getMaxLoggedStatements())) {
+            try {
+                Object result = joinPoint.proceed();
+                recordRows(tags, result);
+                return result;
+            } catch (Throwable e) {
+                outcome = "error";
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                Timer.builder("member.repository.query")
+                        .tags(tags)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(elapsed, TimeUnit.NANOSECONDS);
+                DistributionSummary.builder("member.repository.statements")
+                        .tags(tags)
+                        .register(meterRegistry)
+                        .record(recording.getCount());
+
+                if (elapsed >= properties.getSlowQueryThreshold().toNanos()) {
+                    log.warn("slow repository call {}.{} took {} ms, statements={}, condition={}, sql={}",
+                            joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                            joinPoint.getSignature().getName(),
+                            TimeUnit.NANOSECONDS.toMillis(elapsed),
+                            recording.getCount(),
+                            condition,
+                            recording.getStatements());
+                }
+            }
+        }
+    }
+
+    private void recordRows(Tags tags, Object result) {
+        int rows = rowsOf(result);
+        if (rows >= 0) {
+            DistributionSummary.builder("member.repository.rows")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(rows);
+        }
+    }
+
+    private static int rowsOf(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof KeysetSlice) {
+            return ((KeysetSlice<?>) result).getContent().size();
+        }
+        // Stream 등 호출 시점에 건수를 알 수 없는 결과
+        return -1;
+    }
+
+    private static MemberSearchCondition conditionOf(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition) {
+                return (MemberSearchCondition) arg;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,17 @@
+package study.querydsl.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "member.metrics")
+public class RepositoryMetricsProperties {
+
+    // 이 시간을 넘긴 repository 호출은 실행된 SQL 과 검색 조건을 WARN 로그로 남긴다.
+    private Duration slowQueryThreshold = Duration.ofMillis(500);
+    // 느린 쿼리 로그에 남길 SQL 최대 개수
+    private int maxLoggedStatements = 20;
+}
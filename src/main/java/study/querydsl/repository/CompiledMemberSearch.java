@@ -0,0 +1,79 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import study.querydsl.config.MemberSearchProperties;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * 미리 만들어 둔 형태별 JPQL로 검색
+ * 요청마다 Querydsl 표현식 트리, 프로젝션을 만들고 JPQL로 직렬화하는 비용이 없고,
+ * JPQL 문자열이 항상 같으므로 Hibernate 쿼리 플랜 캐시에서 파싱 결과를 재사용한다.
+ */
+@Component
+public class CompiledMemberSearch {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final boolean enabled;
+
+    public CompiledMemberSearch(MemberSearchProperties properties) {
+        this.enabled = properties.isCompiled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        MemberSearchShape shape = MemberSearchShape.of(condition);
+        TypedQuery<MemberTeamDto> query = em.createQuery(shape.getContentJpql(), MemberTeamDto.class);
+        bind(query, shape, condition);
+        return query.getResultList();
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchShape shape = MemberSearchShape.of(condition);
+        TypedQuery<MemberTeamDto> query = em.createQuery(shape.getContentJpql(), MemberTeamDto.class);
+        bind(query, shape, condition);
+        return query
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    public long count(MemberSearchCondition condition) {
+        return count(em, condition);
+    }
+
+    // 비동기 count 처럼 별도 EntityManager 에서 실행할 때
+    public long count(EntityManager em, MemberSearchCondition condition) {
+        MemberSearchShape shape = MemberSearchShape.of(condition);
+        TypedQuery<Long> query = em.createQuery(shape.getCountJpql(), Long.class);
+        bind(query, shape, condition);
+        return query.getSingleResult();
+    }
+
+    private static void bind(Query query, MemberSearchShape shape, MemberSearchCondition condition) {
+        if (shape.has(MemberSearchShape.USERNAME)) {
+            query.setParameter("username", condition.getUsername());
+        }
+        if (shape.has(MemberSearchShape.TEAM_NAME)) {
+            query.setParameter("teamName", condition.getTeamName());
+        }
+        if (shape.has(MemberSearchShape.AGE_GOE)) {
+            query.setParameter("ageGoe", condition.getAgeGoe());
+        }
+        if (shape.has(MemberSearchShape.AGE_LOE)) {
+            query.setParameter("ageLoe", condition.getAgeLoe());
+        }
+    }
+}
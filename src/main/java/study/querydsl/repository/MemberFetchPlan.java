@@ -0,0 +1,13 @@
+package study.querydsl.repository;
+
+/**
+ * 회원 엔티티 조회 시 Member.team 을 어떻게 가져올지
+ */
+public enum MemberFetchPlan {
+    // 기존 매핑대로 지연 로딩 (team 접근 시마다 select)
+    LAZY,
+    // 회원 조회 쿼리에서 team 을 fetch join
+    JOIN,
+    // 회원 조회 후 team 을 id in (...) 한 번으로 미리 로딩
+    BATCH
+}
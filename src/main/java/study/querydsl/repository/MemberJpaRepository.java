@@ -3,25 +3,54 @@ package study.querydsl.repository;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.jpa.impl.JPAQueryFactory;
-import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.config.MemberSearchProperties;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.cache.MemberSearchCache;
+import study.querydsl.repository.index.MemberColumnIndex;
+import study.querydsl.repository.projection.MemberJdbcProjection;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static java.util.Objects.nonNull;
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
-@RequiredArgsConstructor
 @Repository
+@Transactional(readOnly = true)
 public class MemberJpaRepository {
 
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchCache searchCache;
+    private final CompiledMemberSearch compiledSearch;
+    private final MemberColumnIndex columnIndex;
+    private final MemberJdbcProjection jdbcProjection;
+    private final TeamIdMemberSearch teamIdSearch;
+    private final int streamFetchSize;
+
+    public MemberJpaRepository(JPAQueryFactory queryFactory,
+                               MemberSearchCache searchCache,
+                               CompiledMemberSearch compiledSearch,
+                               MemberColumnIndex columnIndex,
+                               MemberJdbcProjection jdbcProjection,
+                               TeamIdMemberSearch teamIdSearch,
+                               MemberSearchProperties properties) {
+        this.queryFactory = queryFactory;
+        this.searchCache = searchCache;
+        this.compiledSearch = compiledSearch;
+        this.columnIndex = columnIndex;
+        this.jdbcProjection = jdbcProjection;
+        this.teamIdSearch = teamIdSearch;
+        this.streamFetchSize = properties.getStream().getFetchSize();
+    }
 
     public List<MemberTeamDto> searchWithBuilder(MemberSearchCondition condition) {
         BooleanBuilder builder = new BooleanBuilder();
@@ -57,6 +86,29 @@ public class MemberJpaRepository {
     }
 
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return searchCache.get("search", condition, Pageable.unpaged(), () -> fetchSearch(condition));
+    }
+
+    private List<MemberTeamDto> fetchSearch(MemberSearchCondition condition) {
+        Optional<List<MemberTeamDto>> indexed = columnIndex.search(condition);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+
+        if (jdbcProjection.isEnabled()) {
+            return jdbcProjection.search(condition);
+        }
+
+        if (compiledSearch.isEnabled()) {
+            return compiledSearch.search(condition);
+        }
+
+        // 팀 이름 조건은 캐시에서 찾은 팀 id 로 바꿔서 team 조인 없이 조회
+        Optional<List<Long>> teamIds = teamIdSearch.teamIds(condition);
+        if (teamIds.isPresent()) {
+            return teamIdSearch.search(condition, teamIds.get());
+        }
+
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id,
@@ -76,6 +128,32 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    /**
+     * 결과를 한 번에 메모리에 올리지 않고 JDBC fetch size 단위로 읽어오는 스트림 (Hibernate ScrollableResults)
+     * 커넥션을 계속 점유하므로 반드시 트랜잭션 안에서 사용하고 try-with-resources로 닫아야 한다.
+     */
+    public Stream<MemberTeamDto> searchStream(MemberSearchCondition condition) {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .setHint(QueryHints.HINT_FETCH_SIZE, streamFetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .stream();
+    }
+
     private Predicate ageLoe(Integer ageLoe) {
         return nonNull(ageLoe) ? member.age.loe(ageLoe) : null;
     }
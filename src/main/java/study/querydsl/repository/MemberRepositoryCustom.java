@@ -2,8 +2,12 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.KeysetCursor;
+import study.querydsl.dto.KeysetSlice;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
 
 import java.util.List;
 
@@ -13,4 +17,10 @@ public interface MemberRepositoryCustom {
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
 
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+
+    KeysetSlice<MemberTeamDto> searchSlice(MemberSearchCondition condition, KeysetCursor cursor);
+
+    MemberTeamColumns searchColumns(MemberSearchCondition condition, int maxRows);
+
+    List<Member> findMembers(MemberSearchCondition condition, MemberFetchPlan fetchPlan);
 }
@@ -1,7 +1,9 @@
 package study.querydsl.repository;
 
-import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberTemplate;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
@@ -10,28 +12,97 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.config.QuerydslFunctionContributor;
+import study.querydsl.dto.KeysetCursor;
+import study.querydsl.dto.KeysetSlice;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.cache.MemberSearchCache;
+import study.querydsl.repository.count.MemberCountStrategy;
+import study.querydsl.repository.count.PendingCount;
+import study.querydsl.repository.count.WindowFunctionSupport;
+import study.querydsl.repository.index.MemberColumnIndex;
+import study.querydsl.repository.projection.MemberJdbcProjection;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 
 import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.toList;
 import static org.springframework.data.support.PageableExecutionUtils.getPage;
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
+// 읽기 전용 트랜잭션으로 묶어서 replica 라우팅이 켜져 있으면 replica 에서 조회한다.
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    private static final NumberTemplate<Long> COUNT_OVER =
+            Expressions.numberTemplate(Long.class, QuerydslFunctionContributor.COUNT_OVER + "()");
+
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1_000;
+
     private final JPAQueryFactory queryFactory;
 
-    public MemberRepositoryImpl(JPAQueryFactory queryFactory) {
+    private final MemberCountStrategy countStrategy;
+    private final WindowFunctionSupport windowFunctionSupport;
+    private final MemberSearchCache searchCache;
+    private final CompiledMemberSearch compiledSearch;
+    private final MemberColumnIndex columnIndex;
+    private final MemberJdbcProjection jdbcProjection;
+    private final TeamIdMemberSearch teamIdSearch;
+
+    public MemberRepositoryImpl(JPAQueryFactory queryFactory,
+                                MemberCountStrategy countStrategy,
+                                WindowFunctionSupport windowFunctionSupport,
+                                MemberSearchCache searchCache,
+                                CompiledMemberSearch compiledSearch,
+                                MemberColumnIndex columnIndex,
+                                MemberJdbcProjection jdbcProjection,
+                                TeamIdMemberSearch teamIdSearch) {
         this.queryFactory = queryFactory;
+        this.countStrategy = countStrategy;
+        this.windowFunctionSupport = windowFunctionSupport;
+        this.searchCache = searchCache;
+        this.compiledSearch = compiledSearch;
+        this.columnIndex = columnIndex;
+        this.jdbcProjection = jdbcProjection;
+        this.teamIdSearch = teamIdSearch;
     }
 
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return searchCache.get("search", condition, Pageable.unpaged(), () -> fetchSearch(condition));
+    }
+
+    private List<MemberTeamDto> fetchSearch(MemberSearchCondition condition) {
+        Optional<List<MemberTeamDto>> indexed = columnIndex.search(condition);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+
+        if (jdbcProjection.isEnabled()) {
+            return jdbcProjection.search(condition);
+        }
+
+        if (compiledSearch.isEnabled()) {
+            return compiledSearch.search(condition);
+        }
+
+        Optional<List<Long>> teamIds = teamIdSearch.teamIds(condition);
+        if (teamIds.isPresent()) {
+            return teamIdSearch.search(condition, teamIds.get());
+        }
+
         return queryFactory
                 .select(new QMemberTeamDto(
                         member.id,
@@ -51,16 +122,46 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .fetch();
     }
 
+    /**
+     * DB가 윈도우 함수를 지원하면 count(*) over() 로 컨텐츠와 전체 건수를 한 번에 조회
+     * 지원하지 않으면 컨텐츠 쿼리, count 쿼리를 각각 실행한다.
+     */
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDto> result = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
+        if (!windowFunctionSupport.isSupported()) {
+            List<MemberTeamDto> content = queryFactory
+                    .select(new QMemberTeamDto(
+                            member.id,
+                            member.username,
+                            member.age,
+                            team.id,
+                            team.name
+                    ))
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(
+                            usernameEq(condition.getUsername()),
+                            teamNameEq(condition.getTeamName()),
+                            ageGoe(condition.getAgeGoe()),
+                            ageLoe(condition.getAgeLoe())
+                    )
+                    .offset(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .fetch();
+
+            return new PageImpl<>(content, pageable, countQuery(queryFactory, condition).fetchOne());
+        }
+
+        QMemberTeamDto projection = new QMemberTeamDto(
+                member.id,
+                member.username,
+                member.age,
+                team.id,
+                team.name
+        );
+
+        List<Tuple> rows = queryFactory
+                .select(projection, COUNT_OVER)
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
@@ -71,14 +172,62 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 )
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
-                .fetchResults();
+                .fetch();
+
+        // 마지막 페이지를 넘어가면 전체 건수를 알 수 없으므로 그때만 count 쿼리 실행
+        if (rows.isEmpty()) {
+            long total = pageable.getOffset() == 0 ? 0 : countQuery(queryFactory, condition).fetchOne();
+            return new PageImpl<>(Collections.emptyList(), pageable, total);
+        }
 
-        return new PageImpl<>(result.getResults(), pageable, result.getTotal());
+        List<MemberTeamDto> content = rows.stream()
+                .map(row -> row.get(projection))
+                .collect(toList());
+
+        return new PageImpl<>(content, pageable, rows.get(0).get(COUNT_OVER));
     }
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> result = queryFactory
+        return searchCache.get("searchPageComplex", condition, pageable, () -> fetchPageComplex(condition, pageable));
+    }
+
+    private Page<MemberTeamDto> fetchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        // 팀 id 는 호출 스레드에서 미리 찾아둔다. (ASYNC count 는 다른 스레드에서 실행)
+        Optional<List<Long>> teamIds = compiledSearch.isEnabled() ? Optional.empty() : teamIdSearch.teamIds(condition);
+
+        // ASYNC 모드는 여기서 count 쿼리가 바로 시작되므로 컨텐츠 쿼리보다 먼저 준비한다.
+        PendingCount total = compiledSearch.isEnabled()
+                ? countStrategy.prepare(condition, em -> compiledSearch.count(em, condition))
+                : countStrategy.prepare(condition, em -> countQuery(new JPAQueryFactory(em), condition, teamIds).fetchOne());
+
+        try {
+            List<MemberTeamDto> result = compiledSearch.isEnabled()
+                    ? compiledSearch.search(condition, pageable)
+                    : fetchPageContent(condition, pageable, teamIds);
+
+            // count가 생략 가능한 경우에 생략해주는 기능
+            // case 1. 페이지가 시작이면서 컨텐츠가 페이지 사이즈보다 작을 때
+            // case 2. 마지막 페이지일 때 (offset + 컨텐츠 사이즈를 더해서 전체 사이즈를 구함)
+            Page<MemberTeamDto> page = getPage(result, pageable, total);
+            // count 를 쓰지 않았으면 동시에 실행 중인 count 를 취소
+            total.finish();
+            return page;
+        } catch (RuntimeException | Error e) {
+            total.fail();
+            throw e;
+        }
+    }
+
+    private List<MemberTeamDto> fetchPageContent(MemberSearchCondition condition, Pageable pageable,
+                                                 Optional<List<Long>> teamIds) {
+        if (teamIds.isPresent()) {
+            return teamIdSearch.search(condition, teamIds.get(), query -> query
+                    .offset(pageable.getOffset())
+                    .limit(pageable.getPageSize()));
+        }
+
+        return queryFactory
                 .select(new QMemberTeamDto(
                         member.id,
                         member.username,
@@ -97,21 +246,153 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
+    }
+
+    private JPAQuery<Long> countQuery(JPAQueryFactory factory, MemberSearchCondition condition) {
+        return countQuery(factory, condition, Optional.empty());
+    }
 
-        JPAQuery<Long> countQuery = queryFactory
+    private JPAQuery<Long> countQuery(JPAQueryFactory factory, MemberSearchCondition condition,
+                                      Optional<List<Long>> teamIds) {
+        JPAQuery<Long> query = factory
                 .select(member.count())
-                .from(member)
+                .from(member);
+
+        // 캐시에서 찾은 팀 id 로 거르면 team 조인 없이 member.team_id 만 본다.
+        if (teamIds.isPresent()) {
+            return query.where(
+                    usernameEq(condition.getUsername()),
+                    TeamIdMemberSearch.teamIdIn(teamIds.get()),
+                    ageGoe(condition.getAgeGoe()),
+                    ageLoe(condition.getAgeLoe())
+            );
+        }
+
+        // teamName 조건이 있을 때만 team 조인이 필요하다.
+        if (hasText(condition.getTeamName())) {
+            query.leftJoin(member.team, team);
+        }
+
+        return query.where(
+                usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        );
+    }
+
+    /**
+     * offset 대신 직전 페이지의 마지막 member.id 이후부터 조회 (keyset / seek 방식)
+     * pk 인덱스를 바로 타기 때문에 몇 번째 페이지든 조회 비용이 일정하다.
+     */
+    @Override
+    public KeysetSlice<MemberTeamDto> searchSlice(MemberSearchCondition condition, KeysetCursor cursor) {
+        Optional<List<Long>> teamIds = teamIdSearch.teamIds(condition);
+        List<MemberTeamDto> result;
+        if (teamIds.isPresent()) {
+            result = teamIdSearch.search(condition, teamIds.get(), query -> query
+                    .where(idGt(cursor.getLastId()))
+                    .orderBy(member.id.asc())
+                    .limit(cursor.getSize() + 1));
+        } else {
+            result = queryFactory
+                    .select(new QMemberTeamDto(
+                            member.id,
+                            member.username,
+                            member.age,
+                            team.id,
+                            team.name
+                    ))
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(
+                            idGt(cursor.getLastId()),
+                            usernameEq(condition.getUsername()),
+                            teamNameEq(condition.getTeamName()),
+                            ageGoe(condition.getAgeGoe()),
+                            ageLoe(condition.getAgeLoe())
+                    )
+                    .orderBy(member.id.asc())
+                    // 다음 페이지 존재 여부를 알기 위해 한 건 더 조회
+                    .limit(cursor.getSize() + 1)
+                    .fetch();
+        }
+
+        boolean hasNext = result.size() > cursor.getSize();
+        List<MemberTeamDto> content = hasNext ? new ArrayList<>(result.subList(0, cursor.getSize())) : result;
+        String nextCursor = hasNext
+                ? cursor.next(content.get(content.size() - 1).getMemberId()).encode()
+                : null;
+
+        return new KeysetSlice<>(content, cursor.getSize(), hasNext, nextCursor);
+    }
+
+    /**
+     * 결과를 MemberTeamDto 대신 컬럼별 배열로 받는다. (row 별 객체 생성 없음)
+     * 최대 maxRows 건, 메모리 인덱스가 준비돼 있으면 DB 를 조회하지 않는다.
+     */
+    @Override
+    public MemberTeamColumns searchColumns(MemberSearchCondition condition, int maxRows) {
+        if (maxRows < 1) {
+            throw new IllegalArgumentException("maxRows must be positive: " + maxRows);
+        }
+        Optional<List<MemberTeamDto>> indexed = columnIndex.search(condition);
+        if (indexed.isPresent()) {
+            List<MemberTeamDto> rows = indexed.get();
+            return MemberTeamColumns.of(rows.subList(0, Math.min(maxRows, rows.size())));
+        }
+        return jdbcProjection.searchColumns(condition, maxRows);
+    }
+
+    @Override
+    public List<Member> findMembers(MemberSearchCondition condition, MemberFetchPlan fetchPlan) {
+        JPAQuery<Member> query = queryFactory.selectFrom(member);
+
+        // fetch join 이 아니면 team 은 거르는 데만 쓰므로 캐시된 팀 id 로 바꿔서 조인을 뺀다.
+        Optional<List<Long>> teamIds = fetchPlan == MemberFetchPlan.JOIN ? Optional.empty() : teamIdSearch.teamIds(condition);
+
+        if (fetchPlan == MemberFetchPlan.JOIN) {
+            query.leftJoin(member.team, team).fetchJoin();
+        } else if (hasText(condition.getTeamName()) && teamIds.isEmpty()) {
+            query.leftJoin(member.team, team);
+        }
+
+        List<Member> members = query
                 .where(
                         usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamIds.map(TeamIdMemberSearch::teamIdIn).orElseGet(() -> teamNameEq(condition.getTeamName())),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                );
+                )
+                .orderBy(member.id.asc())
+                .fetch();
+
+        if (fetchPlan == MemberFetchPlan.BATCH) {
+            preloadTeams(members);
+        }
+        return members;
+    }
+
+    // 같은 영속성 컨텍스트에 team 을 올려두면 이후 프록시 초기화는 select 없이 끝난다.
+    private void preloadTeams(List<Member> members) {
+        List<Long> teamIds = members.stream()
+                .map(Member::getTeam)
+                .filter(Objects::nonNull)
+                .map(Team::getId)
+                .distinct()
+                .collect(toList());
+
+        for (int from = 0; from < teamIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Long> chunk = teamIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, teamIds.size()));
+            queryFactory
+                    .selectFrom(team)
+                    .where(team.id.in(chunk))
+                    .fetch();
+        }
+    }
 
-        // count가 생략 가능한 경우에 생략해주는 기능
-        // case 1. 페이지가 시작이면서 컨텐츠가 페이지 사이즈보다 작을 때
-        // case 2. 마지막 페이지일 때 (offset + 컨텐츠 사이즈를 더해서 전체 사이즈를 구함)
-        return getPage(result, pageable, countQuery::fetchOne);
+    private Predicate idGt(Long lastId) {
+        return nonNull(lastId) ? member.id.gt(lastId) : null;
     }
 
     private Predicate ageLoe(Integer ageLoe) {
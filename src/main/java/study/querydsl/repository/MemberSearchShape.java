@@ -0,0 +1,158 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.schema.IndexRequirement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.nonNull;
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * MemberSearchCondition 에서 어떤 필터가 쓰였는지를 나타내는 조회 형태
+ * 필터가 4개라 형태는 16가지뿐이므로 형태별 JPQL을 미리 만들어 두고 재사용한다.
+ */
+@Getter
+public final class MemberSearchShape {
+
+    public static final int USERNAME = 1;
+    public static final int TEAM_NAME = 1 << 1;
+    public static final int AGE_GOE = 1 << 2;
+    public static final int AGE_LOE = 1 << 3;
+
+    private static final MemberSearchShape[] SHAPES = new MemberSearchShape[16];
+
+    static {
+        for (int mask = 0; mask < SHAPES.length; mask++) {
+            SHAPES[mask] = new MemberSearchShape(mask);
+        }
+    }
+
+    private final int mask;
+    // 메트릭 태그 등에 쓰는 이름, 예) "teamName+ageGoe", 필터가 없으면 "none"
+    private final String name;
+    private final String contentJpql;
+    private final String countJpql;
+    // JDBC 로 바로 읽을 때 쓰는 SQL, 파라미터 순서는 username, teamName, ageGoe, ageLoe
+    private final String contentSql;
+
+    private MemberSearchShape(int mask) {
+        this.mask = mask;
+        this.name = nameOf(mask);
+
+        String where = whereOf(mask);
+        this.contentJpql = "select new study.querydsl.dto.MemberTeamDto(m.id, m.username, m.age, t.id, t.name)"
+                + " from Member m left join m.team t" + where;
+        // teamName 조건이 있을 때만 team 조인
+        this.countJpql = "select count(m) from Member m"
+                + (has(TEAM_NAME) ? " left join m.team t" : "") + where;
+        this.contentSql = "select m.id, m.username, m.age, t.id, t.name"
+                + " from member m left join team t on t.id = m.team_id" + sqlWhereOf(mask);
+    }
+
+    public static MemberSearchShape of(MemberSearchCondition condition) {
+        int mask = 0;
+        if (hasText(condition.getUsername())) {
+            mask |= USERNAME;
+        }
+        if (hasText(condition.getTeamName())) {
+            mask |= TEAM_NAME;
+        }
+        if (nonNull(condition.getAgeGoe())) {
+            mask |= AGE_GOE;
+        }
+        if (nonNull(condition.getAgeLoe())) {
+            mask |= AGE_LOE;
+        }
+        return SHAPES[mask];
+    }
+
+    public static List<MemberSearchShape> all() {
+        return List.of(SHAPES);
+    }
+
+    public boolean has(int filter) {
+        return (mask & filter) != 0;
+    }
+
+    /**
+     * 이 형태의 조회에 필요한 인덱스 (선두 컬럼 기준)
+     * - username: member(username)
+     * - teamName: team(name) 으로 팀을 찾고 member(team_id[, age]) 로 조인
+     * - age 만 있으면 member(age)
+     */
+    public List<IndexRequirement> requiredIndexes() {
+        List<IndexRequirement> indexes = new ArrayList<>();
+        boolean age = has(AGE_GOE) || has(AGE_LOE);
+
+        if (has(USERNAME)) {
+            indexes.add(new IndexRequirement("member", "username"));
+        }
+        if (has(TEAM_NAME)) {
+            indexes.add(new IndexRequirement("team", "name"));
+            indexes.add(age ? new IndexRequirement("member", "team_id", "age") : new IndexRequirement("member", "team_id"));
+        }
+        if (age && !has(USERNAME) && !has(TEAM_NAME)) {
+            indexes.add(new IndexRequirement("member", "age"));
+        }
+        return indexes;
+    }
+
+    private static String nameOf(int mask) {
+        List<String> filters = new ArrayList<>();
+        if ((mask & USERNAME) != 0) {
+            filters.add("username");
+        }
+        if ((mask & TEAM_NAME) != 0) {
+            filters.add("teamName");
+        }
+        if ((mask & AGE_GOE) != 0) {
+            filters.add("ageGoe");
+        }
+        if ((mask & AGE_LOE) != 0) {
+            filters.add("ageLoe");
+        }
+        return filters.isEmpty() ? "none" : String.join("+", filters);
+    }
+
+    private static String whereOf(int mask) {
+        List<String> predicates = new ArrayList<>();
+        if ((mask & USERNAME) != 0) {
+            predicates.add("m.username = :username");
+        }
+        if ((mask & TEAM_NAME) != 0) {
+            predicates.add("t.name = :teamName");
+        }
+        if ((mask & AGE_GOE) != 0) {
+            predicates.add("m.age >= :ageGoe");
+        }
+        if ((mask & AGE_LOE) != 0) {
+            predicates.add("m.age <= :ageLoe");
+        }
+        return predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates);
+    }
+
+    private static String sqlWhereOf(int mask) {
+        List<String> predicates = new ArrayList<>();
+        if ((mask & USERNAME) != 0) {
+            predicates.add("m.username = ?");
+        }
+        if ((mask & TEAM_NAME) != 0) {
+            predicates.add("t.name = ?");
+        }
+        if ((mask & AGE_GOE) != 0) {
+            predicates.add("m.age >= ?");
+        }
+        if ((mask & AGE_LOE) != 0) {
+            predicates.add("m.age <= ?");
+        }
+        return predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
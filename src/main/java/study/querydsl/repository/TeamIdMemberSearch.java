@@ -0,0 +1,93 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.cache.TeamCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+import static java.util.Objects.nonNull;
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 팀 이름 조건을 TeamCache 에서 찾은 팀 id 로 바꿔서 team 조인 없이 검색
+ * MemberRepositoryImpl, MemberJpaRepository 가 같이 쓴다.
+ */
+@Component
+public class TeamIdMemberSearch {
+
+    private final JPAQueryFactory queryFactory;
+    private final TeamCache teamCache;
+
+    public TeamIdMemberSearch(JPAQueryFactory queryFactory, TeamCache teamCache) {
+        this.queryFactory = queryFactory;
+        this.teamCache = teamCache;
+    }
+
+    /**
+     * teamName 조건이 있고 TeamCache 를 쓸 수 있으면 캐시에서 찾은 팀 id 목록 (팀 이름은 유일하지 않다.)
+     * Optional.empty() 면 기존처럼 team 조인으로 거른다.
+     */
+    public Optional<List<Long>> teamIds(MemberSearchCondition condition) {
+        if (!hasText(condition.getTeamName()) || !teamCache.isUsable()) {
+            return Optional.empty();
+        }
+        return Optional.of(teamCache.idsByName(condition.getTeamName()));
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition, List<Long> teamIds) {
+        return search(condition, teamIds, UnaryOperator.identity());
+    }
+
+    /**
+     * member.team_id 로 거르고, 팀 이름은 TeamCache 에서 채운다.
+     * 조건의 팀 이름에 해당하는 팀이 없으면 조회하지 않는다.
+     */
+    public List<MemberTeamDto> search(MemberSearchCondition condition, List<Long> teamIds,
+                                      UnaryOperator<JPAQuery<Tuple>> customizer) {
+        if (teamIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Tuple> rows = customizer.apply(queryFactory
+                        .select(member.id, member.username, member.age, member.team.id)
+                        .from(member)
+                        .where(
+                                usernameEq(condition.getUsername()),
+                                teamIdIn(teamIds),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe())
+                        ))
+                .fetch();
+        return teamCache.toMemberTeamDtos(rows);
+    }
+
+    // 빈 목록이면 어떤 member 도 맞지 않는 조건 (in () 은 만들 수 없다.)
+    static Predicate teamIdIn(List<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return member.id.isNull();
+        }
+        return teamIds.size() == 1 ? member.team.id.eq(teamIds.get(0)) : member.team.id.in(teamIds);
+    }
+
+    private static Predicate ageLoe(Integer ageLoe) {
+        return nonNull(ageLoe) ? member.age.loe(ageLoe) : null;
+    }
+
+    private static Predicate ageGoe(Integer ageGoe) {
+        return nonNull(ageGoe) ? member.age.goe(ageGoe) : null;
+    }
+
+    private static Predicate usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
+    }
+}
@@ -0,0 +1,14 @@
+package study.querydsl.repository;
+
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+public interface TeamRepositoryCustom {
+
+    /**
+     * 주어진 팀들의 members 컬렉션을 IN 절 chunk 당 한 번의 쿼리로 채운다.
+     * 이미 초기화된 컬렉션은 다시 읽지 않는다.
+     */
+    void loadMembers(List<Team> teams);
+}
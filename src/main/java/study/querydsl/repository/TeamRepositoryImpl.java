@@ -0,0 +1,41 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.Hibernate;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1_000;
+
+    private final JPAQueryFactory queryFactory;
+
+    public TeamRepositoryImpl(JPAQueryFactory queryFactory) {
+        this.queryFactory = queryFactory;
+    }
+
+    @Override
+    public void loadMembers(List<Team> teams) {
+        List<Team> targets = teams.stream()
+                .filter(target -> !Hibernate.isInitialized(target.getMembers()))
+                .distinct()
+                .collect(toList());
+
+        // 영속성 컨텍스트에 있는 팀을 fetch join 으로 다시 조회하면 같은 인스턴스의 members 가 초기화된다.
+        for (int from = 0; from < targets.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Team> chunk = targets.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, targets.size()));
+            queryFactory
+                    .selectFrom(team)
+                    .distinct()
+                    .leftJoin(team.members, member).fetchJoin()
+                    .where(team.in(chunk))
+                    .fetch();
+        }
+    }
+}
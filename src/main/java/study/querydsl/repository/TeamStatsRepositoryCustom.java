@@ -0,0 +1,20 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.TeamStatsDto;
+
+import java.util.List;
+
+public interface TeamStatsRepositoryCustom {
+
+    /**
+     * team_stats rollup 에서 팀별 집계를 읽는다. (팀 수 만큼의 row)
+     * teamName 이 비어 있으면 전체 팀
+     */
+    List<TeamStatsDto> findStats(String teamName);
+
+    /**
+     * member 를 팀별로 group by 해서 바로 집계한다. (rollup 재구성, rollup 을 쓸 수 없을 때)
+     * 회원이 없는 팀도 0 건으로 포함한다.
+     */
+    List<TeamStatsDto> aggregateStats(String teamName);
+}
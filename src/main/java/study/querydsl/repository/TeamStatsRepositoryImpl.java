@@ -0,0 +1,63 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import study.querydsl.dto.QTeamStatsDto;
+import study.querydsl.dto.TeamStatsDto;
+
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.entity.QTeamStats.teamStats;
+
+public class TeamStatsRepositoryImpl implements TeamStatsRepositoryCustom {
+
+    private final JPAQueryFactory queryFactory;
+
+    public TeamStatsRepositoryImpl(JPAQueryFactory queryFactory) {
+        this.queryFactory = queryFactory;
+    }
+
+    @Override
+    public List<TeamStatsDto> findStats(String teamName) {
+        return queryFactory
+                .select(new QTeamStatsDto(
+                        teamStats.teamId,
+                        teamStats.teamName,
+                        teamStats.memberCount,
+                        teamStats.ageCount,
+                        teamStats.ageSum,
+                        teamStats.ageMin,
+                        teamStats.ageMax))
+                .from(teamStats)
+                .where(hasText(teamName) ? teamStats.teamName.eq(teamName) : null)
+                .orderBy(teamStats.teamName.asc(), teamStats.teamId.asc())
+                .fetch();
+    }
+
+    @Override
+    public List<TeamStatsDto> aggregateStats(String teamName) {
+        return queryFactory
+                .select(new QTeamStatsDto(
+                        team.id,
+                        team.name,
+                        member.id.count(),
+                        member.age.count(),
+                        // sum(integer) 의 결과 타입이 DB 마다 달라서 long 으로 맞춘다.
+                        member.age.longValue().sum(),
+                        member.age.min(),
+                        member.age.max()))
+                .from(team)
+                .leftJoin(team.members, member)
+                .where(teamNameEq(teamName))
+                .groupBy(team.id, team.name)
+                .orderBy(team.name.asc(), team.id.asc())
+                .fetch();
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+}
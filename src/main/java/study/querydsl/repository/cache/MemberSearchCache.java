@@ -0,0 +1,140 @@
+package study.querydsl.repository.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.EqualsAndHashCode;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.changefeed.ChangeBatch;
+import study.querydsl.changefeed.ChangeListener;
+import study.querydsl.config.MemberSearchProperties;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 검색 조건 + Pageable 단위의 조회 결과 캐시 (read-through)
+ * ChangeFeed 로 커밋된 변경을 받아서 영향을 받는 항목만 무효화한다.
+ * (변경 전/후 row 가 조건에 맞거나, 캐시된 결과에 변경된 member / team 이 있는 항목)
+ * 대상 row 를 알 수 없는 변경이면 전체를 무효화한다.
+ */
+@Component
+public class MemberSearchCache implements ChangeListener {
+
+    private final boolean enabled;
+    private final Cache<Key, Object> cache;
+
+    public MemberSearchCache(MemberSearchProperties properties) {
+        MemberSearchProperties.Cache config = properties.getCache();
+        this.enabled = config.isEnabled();
+        // Caffeine의 기본 eviction 정책이 W-TinyLFU
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getExpireAfterWrite())
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String query, MemberSearchCondition condition, Pageable pageable, Supplier<T> loader) {
+        // 쓰기 트랜잭션 안에서는 flush 전 변경이나 커밋 전 데이터가 캐시에 올라갈 수 있으므로 우회
+        if (!enabled || isWritableTransaction()) {
+            return loader.get();
+        }
+        Object cached = cache.get(new Key(query, condition.normalized(), pageable), key -> snapshot(loader.get()));
+        return (T) copyOf(cached);
+    }
+
+    /**
+     * MemberTeamDto 는 setter 가 있으므로 캐시에는 호출자와 공유하지 않는 복사본을 담고,
+     * 꺼낼 때마다 다시 복사해서 호출자가 바꿔도 다음 조회 결과가 바뀌지 않게 한다.
+     */
+    private static Object snapshot(Object value) {
+        if (value instanceof Page) {
+            Page<?> page = (Page<?>) value;
+            return new PageImpl<>(List.copyOf(copyRows(page.getContent())), page.getPageable(), page.getTotalElements());
+        }
+        if (value instanceof List) {
+            return List.copyOf(copyRows((List<?>) value));
+        }
+        return value;
+    }
+
+    private static Object copyOf(Object value) {
+        if (value instanceof Page) {
+            Page<?> page = (Page<?>) value;
+            return new PageImpl<>(copyRows(page.getContent()), page.getPageable(), page.getTotalElements());
+        }
+        if (value instanceof List) {
+            return copyRows((List<?>) value);
+        }
+        return value;
+    }
+
+    private static List<Object> copyRows(List<?> rows) {
+        List<Object> copies = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            if (row instanceof MemberTeamDto) {
+                MemberTeamDto dto = (MemberTeamDto) row;
+                copies.add(new MemberTeamDto(dto.getMemberId(), dto.getUsername(), dto.getAge(),
+                        dto.getTeamId(), dto.getTeamName()));
+            } else {
+                copies.add(row);
+            }
+        }
+        return copies;
+    }
+
+    private boolean isWritableTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void onChanges(ChangeBatch batch) {
+        if (!enabled) {
+            return;
+        }
+
+        if (batch.hasUnknown()) {
+            invalidateAll();
+            return;
+        }
+        cache.asMap().entrySet().removeIf(entry -> batch.affects(entry.getKey().condition, rowsOf(entry.getValue())));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<MemberTeamDto> rowsOf(Object value) {
+        if (value instanceof Page) {
+            return ((Page<MemberTeamDto>) value).getContent();
+        }
+        if (value instanceof Collection) {
+            return (Collection<MemberTeamDto>) value;
+        }
+        return Collections.emptyList();
+    }
+
+    @EqualsAndHashCode
+    private static class Key {
+        private final String query;
+        private final MemberSearchCondition condition;
+        private final Pageable pageable;
+
+        Key(String query, MemberSearchCondition condition, Pageable pageable) {
+            this.query = query;
+            this.condition = condition;
+            this.pageable = pageable;
+        }
+    }
+}
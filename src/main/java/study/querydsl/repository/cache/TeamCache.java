@@ -0,0 +1,203 @@
+package study.querydsl.repository.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.changefeed.ChangeBatch;
+import study.querydsl.changefeed.ChangeEvent;
+import study.querydsl.changefeed.ChangeListener;
+import study.querydsl.config.TeamCacheProperties;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 팀 id -> 이름, 이름 -> id 목록 인메모리 캐시 (L1)
+ * 팀 엔티티 자체는 Hibernate 2차 캐시 team region (L2) 에도 올라간다.
+ * 팀 이름은 유일하지 않으므로 이름으로는 id 목록을 캐시하고, 없는 이름은 빈 목록으로 캐시한다.
+ *
+ * ChangeFeed 로 팀 변경을 받으면 generation 을 올리고 해당 id / 변경 전후 이름을 무효화한다.
+ * 조회 중에 generation 이 바뀌었으면 읽어온 값은 오래된 값일 수 있으므로 캐시에 남기지 않는다.
+ * ChangeFeed 는 이 인스턴스의 커밋만 전달하므로, 다른 인스턴스에서 바꾼 팀은 expire-after-write 가 지날 때까지
+ * (기본 1분) 이전 이름/id 로 거르고 채울 수 있다. 더 짧아야 하면 team.cache.enabled=false 로 조인을 쓴다.
+ */
+@Component
+public class TeamCache implements ChangeListener {
+
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1_000;
+
+    private final boolean enabled;
+    private final Cache<Long, String> nameById;
+    private final Cache<String, List<Long>> idsByName;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Function<String, List<Long>> idLoader;
+    private final Function<Collection<Long>, Map<Long, String>> nameLoader;
+
+    @Autowired
+    public TeamCache(TeamCacheProperties properties, JPAQueryFactory queryFactory) {
+        this(properties,
+                name -> queryFactory
+                        .select(team.id)
+                        .from(team)
+                        .where(team.name.eq(name))
+                        .orderBy(team.id.asc())
+                        .fetch(),
+                ids -> loadNames(queryFactory, ids));
+    }
+
+    TeamCache(TeamCacheProperties properties,
+              Function<String, List<Long>> idLoader,
+              Function<Collection<Long>, Map<Long, String>> nameLoader) {
+        this.enabled = properties.isEnabled();
+        this.nameById = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .build();
+        this.idsByName = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .build();
+        this.idLoader = idLoader;
+        this.nameLoader = nameLoader;
+    }
+
+    private static Map<Long, String> loadNames(JPAQueryFactory queryFactory, Collection<Long> ids) {
+        List<Long> list = new ArrayList<>(ids);
+        Map<Long, String> names = new HashMap<>();
+        for (int from = 0; from < list.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Tuple> rows = queryFactory
+                    .select(team.id, team.name)
+                    .from(team)
+                    .where(team.id.in(list.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, list.size()))))
+                    .fetch();
+            for (Tuple row : rows) {
+                names.put(row.get(team.id), row.get(team.name));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * 쓰기 트랜잭션 안에서는 flush 전 변경이나 커밋 전 데이터가 캐시에 올라갈 수 있으므로 사용하지 않는다.
+     */
+    public boolean isUsable() {
+        return enabled && !(TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    /**
+     * 이름이 name 인 팀 id 목록, 없으면 빈 목록
+     */
+    public List<Long> idsByName(String name) {
+        List<Long> cached = idsByName.getIfPresent(name);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedAt = generation.get();
+        List<Long> ids = List.copyOf(idLoader.apply(name));
+        idsByName.put(name, ids);
+        // 읽는 사이 팀이 바뀌었으면 방금 넣은 값을 믿을 수 없다.
+        if (generation.get() != loadedAt) {
+            idsByName.invalidate(name);
+        }
+        return ids;
+    }
+
+    /**
+     * 팀 id -> 이름, 캐시에 없는 id 는 한 번에 조회한다. (없는 팀은 결과에서 빠진다.)
+     */
+    public Map<Long, String> namesByIds(Collection<Long> ids) {
+        Map<Long, String> names = new HashMap<>(nameById.getAllPresent(ids));
+        Set<Long> missing = new HashSet<>(ids);
+        missing.removeAll(names.keySet());
+        if (missing.isEmpty()) {
+            return names;
+        }
+
+        long loadedAt = generation.get();
+        Map<Long, String> loaded = nameLoader.apply(missing);
+        nameById.putAll(loaded);
+        if (generation.get() != loadedAt) {
+            nameById.invalidateAll(loaded.keySet());
+        }
+        names.putAll(loaded);
+        return names;
+    }
+
+    /**
+     * member.id, member.username, member.age, member.team.id 순서로 조회한 row 에 팀 이름을 채워서 DTO 로 만든다.
+     */
+    public List<MemberTeamDto> toMemberTeamDtos(List<Tuple> rows) {
+        Set<Long> teamIds = new HashSet<>();
+        for (Tuple row : rows) {
+            Long teamId = row.get(member.team.id);
+            if (teamId != null) {
+                teamIds.add(teamId);
+            }
+        }
+        Map<Long, String> names = namesByIds(teamIds);
+
+        return rows.stream()
+                .map(row -> {
+                    Long teamId = row.get(member.team.id);
+                    return new MemberTeamDto(
+                            row.get(member.id),
+                            row.get(member.username),
+                            row.get(member.age),
+                            teamId,
+                            teamId != null ? names.get(teamId) : null);
+                })
+                .collect(toList());
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        nameById.invalidateAll();
+        idsByName.invalidateAll();
+    }
+
+    @Override
+    public void onChanges(ChangeBatch batch) {
+        if (!enabled) {
+            return;
+        }
+
+        for (ChangeEvent event : batch.getEvents()) {
+            if (event.getEntity() != ChangeEvent.Entity.TEAM) {
+                continue;
+            }
+            if (event.isUnknown()) {
+                invalidateAll();
+                return;
+            }
+
+            generation.incrementAndGet();
+            nameById.invalidate(event.getId());
+            // insert 는 없던 이름의 빈 목록을, rename / delete 는 변경 전 이름의 목록을 무효화
+            if (event.getBefore() != null && event.getBefore().getTeamName() != null) {
+                idsByName.invalidate(event.getBefore().getTeamName());
+            }
+            if (event.getAfter() != null && event.getAfter().getTeamName() != null) {
+                idsByName.invalidate(event.getAfter().getTeamName());
+            }
+        }
+    }
+}
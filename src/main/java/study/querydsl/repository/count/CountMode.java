@@ -0,0 +1,13 @@
+package study.querydsl.repository.count;
+
+public enum CountMode {
+    // 매번 count 쿼리 실행
+    EXACT,
+    // 정규화된 검색 조건별로 TTL 동안 count 결과 재사용
+    CACHED,
+    // 조건이 없으면 DB 테이블 통계의 추정치 사용, 조건이 있으면 EXACT
+    ESTIMATED,
+    // 별도 EntityManager로 컨텐츠 쿼리와 동시에 count 실행
+    // 호출자 트랜잭션 밖이므로 동시에 커밋된 변경 때문에 컨텐츠와 total 이 어긋날 수 있다.
+    ASYNC
+}
@@ -0,0 +1,217 @@
+package study.querydsl.repository.count;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import study.querydsl.config.MemberSearchProperties;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.jdbc.SqlStatementRecorder;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.util.Locale;
+import java.util.OptionalLong;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 페이징 total count를 어떻게 구할지 결정하는 전략
+ * 컨텐츠 쿼리 실행 전에 prepare를 호출하고, 반환된 PendingCount를 PageableExecutionUtils.getPage에 넘긴 뒤 finish 한다.
+ *
+ * EXACT 외의 전략은 total 이 컨텐츠와 같은 시점의 값이라는 보장이 없다.
+ * - CACHED: TTL 동안 이전 count
+ * - ESTIMATED: DB 통계의 추정치
+ * - ASYNC: 별도 커넥션(호출자 트랜잭션 밖)에서 실행되므로 그 사이 커밋된 변경이 한쪽에만 보일 수 있다.
+ */
+@Slf4j
+@Component
+public class MemberCountStrategy implements DisposableBean {
+
+    private static final Runnable NO_OP = () -> {
+    };
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final CountMode mode;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MemberTableStatistics tableStatistics;
+    private final SqlStatementRecorder statementRecorder;
+
+    private final Cache<MemberSearchCondition, Long> countCache;
+    private final ExecutorService countExecutor;
+
+    private final Counter executedCounter;
+    private final Counter skippedCounter;
+    private final Counter failedCounter;
+
+    public MemberCountStrategy(MemberSearchProperties properties,
+                               EntityManagerFactory entityManagerFactory,
+                               MemberTableStatistics tableStatistics,
+                               SqlStatementRecorder statementRecorder,
+                               MeterRegistry meterRegistry) {
+        MemberSearchProperties.Count count = properties.getCount();
+        this.mode = count.getMode();
+        this.entityManagerFactory = entityManagerFactory;
+        this.tableStatistics = tableStatistics;
+        this.statementRecorder = statementRecorder;
+
+        this.countCache = mode == CountMode.CACHED
+                ? Caffeine.newBuilder()
+                        .expireAfterWrite(count.getCacheTtl())
+                        .maximumSize(count.getCacheMaximumSize())
+                        .build()
+                : null;
+        this.countExecutor = mode == CountMode.ASYNC
+                ? Executors.newFixedThreadPool(count.getAsyncPoolSize(), daemonThreadFactory("member-count-"))
+                : null;
+
+        // searchPageComplex 에서 count 쿼리가 실행됐는지, getPage 가 생략했는지, 조회가 실패했는지
+        String modeTag = mode.name().toLowerCase(Locale.ROOT);
+        this.executedCounter = Counter.builder("member.repository.count")
+                .tag("mode", modeTag)
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("member.repository.count")
+                .tag("mode", modeTag)
+                .tag("result", "skipped")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("member.repository.count")
+                .tag("mode", modeTag)
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param counter 주어진 EntityManager로 count 쿼리를 실행하는 함수
+     */
+    public PendingCount prepare(MemberSearchCondition condition, Function<EntityManager, Long> counter) {
+        switch (mode) {
+            case CACHED:
+                return pending(() -> countCache.get(condition.normalized(), key -> counter.apply(em)), NO_OP);
+            case ESTIMATED:
+                return pending(() -> estimate(condition, counter), NO_OP);
+            case ASYNC:
+                AsyncCount count = async(counter);
+                return pending(count, count::cancel);
+            default:
+                return pending(() -> counter.apply(em), NO_OP);
+        }
+    }
+
+    private PendingCount pending(LongSupplier count, Runnable cancel) {
+        return new PendingCount(count, cancel, executedCounter, skippedCounter, failedCounter);
+    }
+
+    public CountMode getMode() {
+        return mode;
+    }
+
+    private long estimate(MemberSearchCondition condition, Function<EntityManager, Long> counter) {
+        if (condition.hasNoFilter()) {
+            OptionalLong estimate = tableStatistics.estimateRowCount();
+            if (estimate.isPresent()) {
+                return estimate.getAsLong();
+            }
+        }
+        return counter.apply(em);
+    }
+
+    // 트랜잭션에 묶인 EntityManager는 스레드 간 공유할 수 없으므로 count 전용 EntityManager를 따로 연다.
+    // count 스레드에서 실행된 SQL 도 호출한 쪽의 메트릭 / N+1 구간에 기록한다.
+    private AsyncCount async(Function<EntityManager, Long> counter) {
+        AsyncCount count = new AsyncCount(counter);
+        count.future = countExecutor.submit(statementRecorder.wrap(count));
+        return count;
+    }
+
+    /**
+     * 별도 커넥션에서 컨텐츠 쿼리와 동시에 실행되는 count
+     * getPage 가 count 를 쓰지 않으면 아직 시작 전인 작업은 취소하고, 실행 중인 쿼리는 JDBC 수준에서 cancel 한다.
+     */
+    private class AsyncCount implements Callable<Long>, LongSupplier {
+
+        private final Function<EntityManager, Long> counter;
+        private volatile Future<Long> future;
+        private volatile Session session;
+        private volatile boolean cancelled;
+
+        AsyncCount(Function<EntityManager, Long> counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public Long call() {
+            EntityManager em = entityManagerFactory.createEntityManager();
+            try {
+                session = em.unwrap(Session.class);
+                if (cancelled) {
+                    throw new CancellationException();
+                }
+                return counter.apply(em);
+            } finally {
+                session = null;
+                em.close();
+            }
+        }
+
+        @Override
+        public long getAsLong() {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for count query", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("count query failed", e.getCause());
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            if (future.cancel(false)) {
+                return;
+            }
+
+            Session running = session;
+            if (running != null) {
+                try {
+                    running.cancelQuery();
+                } catch (RuntimeException e) {
+                    // 이미 끝났거나 닫힌 세션
+                    log.debug("count query cancel ignored", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (countExecutor != null) {
+            countExecutor.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package study.querydsl.repository.count;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * DB가 관리하는 테이블 통계에서 member 테이블의 추정 row 수를 읽는다.
+ * 지원하지 않는 DB면 empty를 반환하고 호출한 쪽에서 정확한 count로 대체한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberTableStatistics {
+
+    private static final String UNSUPPORTED = "";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile String estimateSql;
+
+    public OptionalLong estimateRowCount() {
+        String sql = resolveEstimateSql();
+        if (sql.isEmpty()) {
+            return OptionalLong.empty();
+        }
+
+        try {
+            List<Long> rows = jdbcTemplate.queryForList(sql, Long.class);
+            if (rows.isEmpty() || rows.get(0) == null || rows.get(0) < 0) {
+                return OptionalLong.empty();
+            }
+            return OptionalLong.of(rows.get(0));
+        } catch (DataAccessException e) {
+            log.warn("member row estimate failed, falling back to exact count", e);
+            return OptionalLong.empty();
+        }
+    }
+
+    private String resolveEstimateSql() {
+        String sql = estimateSql;
+        if (sql == null) {
+            String productName = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            sql = estimateSqlFor(productName);
+            estimateSql = sql;
+        }
+        return sql;
+    }
+
+    private static String estimateSqlFor(String productName) {
+        if (productName == null) {
+            return UNSUPPORTED;
+        }
+
+        switch (productName) {
+            case "H2":
+                return "select ROW_COUNT_ESTIMATE from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'MEMBER'";
+            case "PostgreSQL":
+                return "select reltuples::bigint from pg_class where relname = 'member'";
+            case "MySQL":
+            case "MariaDB":
+                return "select TABLE_ROWS from INFORMATION_SCHEMA.TABLES"
+                        + " where TABLE_SCHEMA = database() and TABLE_NAME = 'member'";
+            default:
+                return UNSUPPORTED;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package study.querydsl.repository.count;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.function.LongSupplier;
+
+/**
+ * PageableExecutionUtils.getPage 에 넘기는 count
+ * getPage 가 count 를 생략했는지 여부를 finish 시점에 메트릭으로 남기고, 생략했다면 진행 중인 count 를 취소한다.
+ * 컨텐츠 쿼리나 count 가 실패하면 finish 대신 fail 을 호출해서 생략과 구분한다.
+ */
+public class PendingCount implements LongSupplier {
+
+    private final LongSupplier count;
+    private final Runnable cancel;
+    private final Counter executed;
+    private final Counter skipped;
+    private final Counter failed;
+
+    private boolean used;
+
+    PendingCount(LongSupplier count, Runnable cancel, Counter executed, Counter skipped, Counter failed) {
+        this.count = count;
+        this.cancel = cancel;
+        this.executed = executed;
+        this.skipped = skipped;
+        this.failed = failed;
+    }
+
+    @Override
+    public long getAsLong() {
+        used = true;
+        return count.getAsLong();
+    }
+
+    public boolean isUsed() {
+        return used;
+    }
+
+    /**
+     * getPage 호출이 성공한 뒤 호출
+     * count 가 쓰이지 않았으면 미리 시작한 비동기 count 를 취소한다.
+     */
+    public void finish() {
+        if (used) {
+            executed.increment();
+        } else {
+            skipped.increment();
+            cancel.run();
+        }
+    }
+
+    /**
+     * 컨텐츠 쿼리, count, getPage 중 하나가 실패했을 때 finish 대신 호출
+     * 진행 중인 비동기 count 는 더 이상 필요 없으므로 취소한다.
+     */
+    public void fail() {
+        failed.increment();
+        cancel.run();
+    }
+}
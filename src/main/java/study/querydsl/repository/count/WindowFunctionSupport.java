@@ -0,0 +1,73 @@
+package study.querydsl.repository.count;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.querydsl.config.MemberSearchProperties;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * 현재 DB가 count(*) over() 윈도우 함수를 지원하는지 판단
+ * 지원하지 않으면 컨텐츠 쿼리 + count 쿼리 두 번으로 페이징한다.
+ */
+@Component
+public class WindowFunctionSupport {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    private volatile Boolean supported;
+
+    public WindowFunctionSupport(JdbcTemplate jdbcTemplate, MemberSearchProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = properties.getPaging().isWindowedCount();
+    }
+
+    public boolean isSupported() {
+        if (!enabled) {
+            return false;
+        }
+
+        Boolean result = supported;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> supports(con.getMetaData()));
+            supported = result;
+        }
+        return result;
+    }
+
+    private static boolean supports(DatabaseMetaData metaData) throws SQLException {
+        String product = metaData.getDatabaseProductName();
+        int major = metaData.getDatabaseMajorVersion();
+        int minor = metaData.getDatabaseMinorVersion();
+
+        switch (product) {
+            case "H2":
+                // 1.4.198 부터 윈도우 함수 지원
+                return major >= 2 || (major == 1 && minor == 4 && h2Build(metaData.getDatabaseProductVersion()) >= 198);
+            case "PostgreSQL":
+                return major > 8 || (major == 8 && minor >= 4);
+            case "MySQL":
+                return major >= 8;
+            case "MariaDB":
+                return major > 10 || (major == 10 && minor >= 2);
+            case "Oracle":
+            case "Microsoft SQL Server":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // "1.4.200 (2019-10-14)" -> 200
+    private static int h2Build(String productVersion) {
+        String[] parts = productVersion.split("[ .]");
+        try {
+            return parts.length > 2 ? Integer.parseInt(parts[2]) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package study.querydsl.repository.index;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.changefeed.ChangeBatch;
+import study.querydsl.changefeed.ChangeEvent;
+import study.querydsl.changefeed.ChangeListener;
+import study.querydsl.config.MemberSearchProperties;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * search(condition) 를 DB 조회 없이 처리하는 메모리 인덱스
+ * 애플리케이션 시작 시 한 번 적재하고, 이후에는 ChangeFeed 로 받은 변경만 스냅샷에 반영한다.
+ * 적재는 member.id 기준 keyset 페이지(loadBatchSize)로 나눠서 읽으므로 조회 결과는 한 페이지만 힙에 올라간다.
+ * 변경 반영은 커밋한 스레드가 아니라 백그라운드 스레드 하나에서 한다.
+ * - 그동안 쌓인 변경을 모아서 한 번에 새 스냅샷을 만든다. (스냅샷 복사는 커밋마다가 아니라 반영할 때마다 한 번)
+ * - 이벤트의 after 상태 대신 바뀐 row 를 DB 에서 다시 읽어서 반영한다.
+ *   발행 순서가 커밋 순서와 다를 수 있어도 마지막으로 반영한 값은 항상 커밋된 최신 상태다.
+ * 대상 row 를 알 수 없는 변경이 오면 스냅샷을 바로 사용 중지하고 같은 스레드에서 다시 적재한다.
+ * 적재 전이거나 다시 적재하는 동안, 그리고 쓰기 트랜잭션 안에서는 empty 를 돌려줘서 Querydsl 로 조회하게 한다.
+ * 커밋 직후 반영되기 전까지는 이전 스냅샷으로 응답할 수 있다.
+ */
+@Slf4j
+@Component
+public class MemberColumnIndex implements ChangeListener {
+
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1_000;
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate pageTransaction;
+    private final boolean enabled;
+    private final int loadBatchSize;
+
+    // 대상을 알 수 없는 변경이 올 때마다 증가, 스냅샷의 version 과 다르면 사용하지 않는다.
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final AtomicBoolean applyScheduled = new AtomicBoolean();
+    private final ExecutorService applier;
+
+    private volatile MemberColumns columns;
+    // 아직 스냅샷에 반영하지 않은 변경 (둘 다 changedMembers 로 동기화)
+    private final Set<Long> changedMembers = new LinkedHashSet<>();
+    private final Set<Long> changedTeams = new LinkedHashSet<>();
+
+    public MemberColumnIndex(JPAQueryFactory queryFactory,
+                             PlatformTransactionManager transactionManager,
+                             MemberSearchProperties properties) {
+        this.queryFactory = queryFactory;
+        this.pageTransaction = new TransactionTemplate(transactionManager);
+        this.pageTransaction.setReadOnly(true);
+        this.enabled = properties.getIndex().isEnabled();
+        this.loadBatchSize = Math.max(1, properties.getIndex().getLoadBatchSize());
+        this.applier = enabled ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-index");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public Optional<List<MemberTeamDto>> search(MemberSearchCondition condition) {
+        MemberColumns current = columns;
+        if (current == null || current.getVersion() != version.get() || isWritableTransaction()) {
+            return Optional.empty();
+        }
+        return Optional.of(current.search(condition));
+    }
+
+    public boolean isReady() {
+        MemberColumns current = columns;
+        return current != null && current.getVersion() == version.get();
+    }
+
+    /**
+     * 전체를 다시 적재, 변경 반영(applyChanges)과 동시에 실행되지 않는다.
+     * 적재 중에 커밋된 변경은 changed* 에 남아 있다가 적재가 끝난 뒤 다시 읽어서 반영된다.
+     */
+    public synchronized void rebuild() {
+        long loadingVersion = version.get();
+        long start = System.nanoTime();
+
+        MemberColumns.Builder builder = MemberColumns.builder(loadingVersion);
+        // builder 에는 id 순서로 넣어야 하므로 member.id 오름차순 keyset 페이지로 읽는다.
+        Long lastId = null;
+        List<Tuple> page;
+        do {
+            page = loadPage(lastId);
+            for (Tuple row : page) {
+                builder.add(row.get(member.id), row.get(member.username), row.get(member.age), row.get(team.id), row.get(team.name));
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).get(member.id);
+            }
+        } while (page.size() == loadBatchSize);
+
+        MemberColumns loaded = builder.build();
+        columns = loaded;
+        log.info("member index loaded: {} rows in {}ms (version {})",
+                loaded.size(), (System.nanoTime() - start) / 1_000_000, loadingVersion);
+    }
+
+    /**
+     * 그동안 쌓인 변경 대상 row 를 다시 읽어서 새 스냅샷을 만든다.
+     */
+    public synchronized void applyChanges() {
+        List<Long> memberIds;
+        List<Long> teamIds;
+        synchronized (changedMembers) {
+            memberIds = new ArrayList<>(changedMembers);
+            teamIds = new ArrayList<>(changedTeams);
+            changedMembers.clear();
+            changedTeams.clear();
+        }
+        // 아직 적재 전이면 적재할 때 최신 상태를 읽는다.
+        MemberColumns current = columns;
+        if (current == null || (memberIds.isEmpty() && teamIds.isEmpty())) {
+            return;
+        }
+
+        List<ChangeEvent> events = new ArrayList<>(memberIds.size() + teamIds.size());
+        for (int from = 0; from < memberIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Long> chunk = memberIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, memberIds.size()));
+            Set<Long> missing = new LinkedHashSet<>(chunk);
+            for (Tuple row : select(member.id.in(chunk))) {
+                Long id = row.get(member.id);
+                missing.remove(id);
+                events.add(ChangeEvent.member(ChangeEvent.Operation.UPDATE, id, null,
+                        new MemberTeamDto(id, row.get(member.username), row.get(member.age), row.get(team.id), row.get(team.name))));
+            }
+            for (Long id : missing) {
+                events.add(ChangeEvent.member(ChangeEvent.Operation.DELETE, id, null, null));
+            }
+        }
+        for (int from = 0; from < teamIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Long> chunk = teamIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, teamIds.size()));
+            List<Tuple> teams = pageTransaction.execute(status -> queryFactory
+                    .select(team.id, team.name)
+                    .from(team)
+                    .where(team.id.in(chunk))
+                    .setHint(QueryHints.HINT_READONLY, true)
+                    .fetch());
+            for (Tuple row : teams) {
+                events.add(ChangeEvent.team(ChangeEvent.Operation.UPDATE, row.get(team.id), null, row.get(team.name)));
+            }
+        }
+
+        columns = current.apply(events);
+    }
+
+    // 페이지마다 읽기 전용 트랜잭션을 따로 쓴다, 그 사이 커밋된 변경은 applyChanges 로 다시 읽는다.
+    private List<Tuple> loadPage(Long afterId) {
+        return pageTransaction.execute(status -> queryFactory
+                .select(member.id, member.username, member.age, team.id, team.name)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(afterId == null ? null : member.id.gt(afterId))
+                .orderBy(member.id.asc())
+                .limit(loadBatchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .fetch());
+    }
+
+    private List<Tuple> select(Predicate where) {
+        return pageTransaction.execute(status -> queryFactory
+                .select(member.id, member.username, member.age, team.id, team.name)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(where)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .fetch());
+    }
+
+    private boolean isWritableTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * 커밋한 스레드에서는 바뀐 id 만 모아두고 반영은 applier 스레드에 맡긴다.
+     */
+    @Override
+    public void onChanges(ChangeBatch batch) {
+        if (!enabled) {
+            return;
+        }
+
+        if (batch.hasUnknown()) {
+            version.incrementAndGet();
+            scheduleRebuild();
+            return;
+        }
+
+        synchronized (changedMembers) {
+            for (ChangeEvent event : batch.getEvents()) {
+                if (event.getEntity() == ChangeEvent.Entity.MEMBER) {
+                    changedMembers.add(event.getId());
+                } else if (event.getOperation() == ChangeEvent.Operation.UPDATE) {
+                    changedTeams.add(event.getId());
+                }
+            }
+        }
+        scheduleApply();
+    }
+
+    // 연속된 unknown 변경은 한 번의 적재로 합친다.
+    private void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        applier.execute(() -> {
+            rebuildScheduled.set(false);
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("member index rebuild failed, falling back to querydsl", e);
+            }
+        });
+    }
+
+    // 반영 전에 도착한 변경은 같은 반영에 합친다.
+    private void scheduleApply() {
+        if (!applyScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        applier.execute(() -> {
+            applyScheduled.set(false);
+            try {
+                applyChanges();
+            } catch (RuntimeException e) {
+                log.warn("member index update failed, reloading", e);
+                version.incrementAndGet();
+                scheduleRebuild();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (applier != null) {
+            applier.shutdownNow();
+        }
+    }
+}
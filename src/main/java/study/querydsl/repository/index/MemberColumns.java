@@ -0,0 +1,305 @@
+package study.querydsl.repository.index;
+
+import study.querydsl.changefeed.ChangeEvent;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Objects.nonNull;
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * member 전체를 컬럼별 primitive 배열로 들고 있는 불변 스냅샷
+ * - id, age 는 long[], int[]
+ * - team 은 사전(dictionary) 인코딩: row 마다 team 코드만 두고 코드별 member row 목록을 따로 둔다.
+ * - username 은 해시 버킷 + 체인
+ * row 는 member.id 오름차순으로 쌓는다.
+ */
+final class MemberColumns {
+
+    private static final int NONE = -1;
+    private static final int NULL_AGE = Integer.MIN_VALUE;
+
+    private final long version;
+    private final int size;
+
+    private final long[] ids;
+    private final int[] ages;
+    private final String[] usernames;
+    private final int[] teamCodes;
+
+    // team 사전, 코드 = 배열 인덱스
+    private final long[] teamIds;
+    private final String[] teamNames;
+    private final Map<String, int[]> teamCodesByName;
+    // 코드별 row 목록 (teamRows[teamRowOffsets[code] .. teamRowOffsets[code + 1]))
+    private final int[] teamRowOffsets;
+    private final int[] teamRows;
+
+    // username 해시 -> 첫 row, 같은 버킷의 다음 row
+    private final int[] usernameBuckets;
+    private final int[] usernameNext;
+
+    private MemberColumns(Builder builder) {
+        this.version = builder.version;
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.ages = Arrays.copyOf(builder.ages, size);
+        this.usernames = Arrays.copyOf(builder.usernames, size);
+        this.teamCodes = Arrays.copyOf(builder.teamCodes, size);
+
+        int teamCount = builder.teamIds.size();
+        this.teamIds = new long[teamCount];
+        this.teamNames = new String[teamCount];
+        Map<String, List<Integer>> codesByName = new HashMap<>();
+        for (int code = 0; code < teamCount; code++) {
+            teamIds[code] = builder.teamIds.get(code);
+            teamNames[code] = builder.teamNames.get(code);
+            if (teamNames[code] != null) {
+                codesByName.computeIfAbsent(teamNames[code], name -> new ArrayList<>()).add(code);
+            }
+        }
+        this.teamCodesByName = new HashMap<>();
+        codesByName.forEach((name, codes) -> teamCodesByName.put(name, codes.stream().mapToInt(Integer::intValue).toArray()));
+
+        this.teamRowOffsets = new int[teamCount + 1];
+        for (int row = 0; row < size; row++) {
+            if (teamCodes[row] != NONE) {
+                teamRowOffsets[teamCodes[row] + 1]++;
+            }
+        }
+        for (int code = 0; code < teamCount; code++) {
+            teamRowOffsets[code + 1] += teamRowOffsets[code];
+        }
+        this.teamRows = new int[teamRowOffsets[teamCount]];
+        int[] cursor = Arrays.copyOf(teamRowOffsets, teamCount);
+        for (int row = 0; row < size; row++) {
+            if (teamCodes[row] != NONE) {
+                teamRows[cursor[teamCodes[row]]++] = row;
+            }
+        }
+
+        this.usernameBuckets = new int[bucketCount(size)];
+        this.usernameNext = new int[size];
+        Arrays.fill(usernameBuckets, NONE);
+        // 뒤에서부터 앞에 끼워 넣어야 체인이 row(id) 오름차순이 된다.
+        for (int row = size - 1; row >= 0; row--) {
+            if (usernames[row] == null) {
+                usernameNext[row] = NONE;
+                continue;
+            }
+            int bucket = bucketOf(usernames[row]);
+            usernameNext[row] = usernameBuckets[bucket];
+            usernameBuckets[bucket] = row;
+        }
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    int size() {
+        return size;
+    }
+
+    List<MemberTeamDto> search(MemberSearchCondition condition) {
+        String username = hasText(condition.getUsername()) ? condition.getUsername() : null;
+        String teamName = hasText(condition.getTeamName()) ? condition.getTeamName() : null;
+        boolean ageFilter = nonNull(condition.getAgeGoe()) || nonNull(condition.getAgeLoe());
+        int ageGoe = nonNull(condition.getAgeGoe()) ? condition.getAgeGoe() : Integer.MIN_VALUE;
+        int ageLoe = nonNull(condition.getAgeLoe()) ? condition.getAgeLoe() : Integer.MAX_VALUE;
+
+        int[] codes = null;
+        if (teamName != null) {
+            codes = teamCodesByName.get(teamName);
+            if (codes == null) {
+                return new ArrayList<>();
+            }
+        }
+
+        List<MemberTeamDto> result = new ArrayList<>();
+
+        if (username != null) {
+            for (int row = usernameBuckets[bucketOf(username)]; row != NONE; row = usernameNext[row]) {
+                if (username.equals(usernames[row]) && matchesTeam(row, codes) && matchesAge(row, ageFilter, ageGoe, ageLoe)) {
+                    result.add(toDto(row));
+                }
+            }
+            return result;
+        }
+
+        if (codes != null && codes.length == 1) {
+            for (int i = teamRowOffsets[codes[0]], end = teamRowOffsets[codes[0] + 1]; i < end; i++) {
+                int row = teamRows[i];
+                if (matchesAge(row, ageFilter, ageGoe, ageLoe)) {
+                    result.add(toDto(row));
+                }
+            }
+            return result;
+        }
+
+        for (int row = 0; row < size; row++) {
+            if (matchesTeam(row, codes) && matchesAge(row, ageFilter, ageGoe, ageLoe)) {
+                result.add(toDto(row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 변경 이벤트를 반영한 새 스냅샷, DB 조회 없이 기존 배열을 한 번 훑어서 만든다.
+     * 같은 이벤트를 다시 적용해도 결과가 같다.
+     */
+    MemberColumns apply(List<ChangeEvent> events) {
+        Map<Long, MemberTeamDto> upserts = new HashMap<>();
+        Set<Long> deletes = new HashSet<>();
+        Map<Long, String> teamRenames = new HashMap<>();
+
+        for (ChangeEvent event : events) {
+            if (event.getEntity() == ChangeEvent.Entity.TEAM) {
+                if (event.getOperation() == ChangeEvent.Operation.UPDATE) {
+                    teamRenames.put(event.getId(), event.getAfter().getTeamName());
+                }
+                continue;
+            }
+
+            if (event.getOperation() == ChangeEvent.Operation.DELETE) {
+                upserts.remove(event.getId());
+                deletes.add(event.getId());
+            } else {
+                deletes.remove(event.getId());
+                upserts.put(event.getId(), event.getAfter());
+            }
+        }
+
+        List<MemberTeamDto> inserts = new ArrayList<>();
+        for (MemberTeamDto row : upserts.values()) {
+            if (Arrays.binarySearch(ids, 0, size, row.getMemberId()) < 0) {
+                inserts.add(row);
+            }
+        }
+        inserts.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+
+        Builder builder = builder(version);
+        int next = 0;
+        for (int row = 0; row < size; row++) {
+            while (next < inserts.size() && inserts.get(next).getMemberId() < ids[row]) {
+                add(builder, inserts.get(next++), teamRenames);
+            }
+            if (deletes.contains(ids[row])) {
+                continue;
+            }
+            MemberTeamDto changed = upserts.get(ids[row]);
+            add(builder, changed != null ? changed : toDto(row), teamRenames);
+        }
+        while (next < inserts.size()) {
+            add(builder, inserts.get(next++), teamRenames);
+        }
+        return builder.build();
+    }
+
+    private static void add(Builder builder, MemberTeamDto row, Map<Long, String> teamRenames) {
+        String teamName = row.getTeamId() == null ? null : teamRenames.getOrDefault(row.getTeamId(), row.getTeamName());
+        builder.add(row.getMemberId(), row.getUsername(), row.getAge(), row.getTeamId(), teamName);
+    }
+
+    private boolean matchesTeam(int row, int[] codes) {
+        if (codes == null) {
+            return true;
+        }
+        for (int code : codes) {
+            if (teamCodes[row] == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // SQL 과 같이 age 가 null 이면 범위 조건을 만족하지 않는다.
+    private boolean matchesAge(int row, boolean ageFilter, int ageGoe, int ageLoe) {
+        if (!ageFilter) {
+            return true;
+        }
+        int age = ages[row];
+        return age != NULL_AGE && age >= ageGoe && age <= ageLoe;
+    }
+
+    private MemberTeamDto toDto(int row) {
+        int code = teamCodes[row];
+        return new MemberTeamDto(
+                ids[row],
+                usernames[row],
+                ages[row] == NULL_AGE ? null : ages[row],
+                code == NONE ? null : teamIds[code],
+                code == NONE ? null : teamNames[code]);
+    }
+
+    private int bucketOf(String username) {
+        int hash = username.hashCode();
+        return (hash ^ (hash >>> 16)) & (usernameBuckets.length - 1);
+    }
+
+    private static int bucketCount(int size) {
+        int buckets = 16;
+        while (buckets < size * 2 && buckets < (1 << 30)) {
+            buckets <<= 1;
+        }
+        return buckets;
+    }
+
+    static Builder builder(long version) {
+        return new Builder(version);
+    }
+
+    static final class Builder {
+
+        private final long version;
+        private int size;
+
+        private long[] ids = new long[1024];
+        private int[] ages = new int[1024];
+        private String[] usernames = new String[1024];
+        private int[] teamCodes = new int[1024];
+
+        private final Map<Long, Integer> teamCodeById = new HashMap<>();
+        private final List<Long> teamIds = new ArrayList<>();
+        private final List<String> teamNames = new ArrayList<>();
+
+        private Builder(long version) {
+            this.version = version;
+        }
+
+        Builder add(long id, String username, Integer age, Long teamId, String teamName) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                usernames = Arrays.copyOf(usernames, capacity);
+                teamCodes = Arrays.copyOf(teamCodes, capacity);
+            }
+
+            ids[size] = id;
+            ages[size] = age == null ? NULL_AGE : age;
+            usernames[size] = username;
+            teamCodes[size] = teamId == null ? NONE : teamCodeById.computeIfAbsent(teamId, key -> {
+                teamIds.add(key);
+                teamNames.add(teamName);
+                return teamIds.size() - 1;
+            });
+            size++;
+            return this;
+        }
+
+        MemberColumns build() {
+            return new MemberColumns(this);
+        }
+    }
+}
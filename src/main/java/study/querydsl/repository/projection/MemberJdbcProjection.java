@@ -0,0 +1,131 @@
+package study.querydsl.repository.projection;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.config.MemberSearchProperties;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.jdbc.SqlStatementListener;
+import study.querydsl.repository.MemberSearchShape;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MemberSearchShape 별 SQL 을 JDBC 로 실행해서 ResultSet 에서 바로 MemberTeamDto / MemberTeamColumns 를 만든다.
+ * Hibernate 의 row 별 Object[] 튜플과 Querydsl 의 생성자 리플렉션을 거치지 않는다.
+ * JPA auto flush 가 적용되지 않으므로 쓰기 트랜잭션 안에서는 실행 전에 직접 flush 한다.
+ * Hibernate StatementInspector 를 거치지 않으므로 실행하는 SQL 을 SqlStatementListener 에 직접 알린다.
+ * (쿼리 수 메트릭, N+1 감지가 이 조회도 센다.)
+ */
+@Component
+public class MemberJdbcProjection {
+
+    public enum Mode {
+        QUERYDSL, JDBC
+    }
+
+    // maxRows 는 상한일 뿐이라 배열은 작게 시작해서 필요한 만큼 늘린다.
+    private static final int INITIAL_CAPACITY = 256;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<SqlStatementListener> statementListeners;
+    private final Mode mode;
+
+    public MemberJdbcProjection(JdbcTemplate jdbcTemplate,
+                                ObjectProvider<SqlStatementListener> statementListeners,
+                                MemberSearchProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statementListeners = statementListeners;
+        this.mode = properties.getProjection();
+    }
+
+    public boolean isEnabled() {
+        return mode == Mode.JDBC;
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return search(condition, 0);
+    }
+
+    /**
+     * @param maxRows 0 이면 제한 없음
+     */
+    public List<MemberTeamDto> search(MemberSearchCondition condition, int maxRows) {
+        flushIfWritable();
+        List<MemberTeamDto> result = new ArrayList<>();
+        jdbcTemplate.query(statement(condition, maxRows), (RowCallbackHandler) rs -> {
+            int age = rs.getInt(3);
+            Integer nullableAge = rs.wasNull() ? null : age;
+            long teamId = rs.getLong(4);
+            Long nullableTeamId = rs.wasNull() ? null : teamId;
+            result.add(new MemberTeamDto(rs.getLong(1), rs.getString(2), nullableAge, nullableTeamId, rs.getString(5)));
+        });
+        return result;
+    }
+
+    /**
+     * @param maxRows 0 이면 제한 없음
+     */
+    public MemberTeamColumns searchColumns(MemberSearchCondition condition, int maxRows) {
+        flushIfWritable();
+        MemberTeamColumns columns = new MemberTeamColumns(maxRows > 0 ? Math.min(maxRows, INITIAL_CAPACITY) : INITIAL_CAPACITY);
+        jdbcTemplate.query(statement(condition, maxRows), (RowCallbackHandler) rs -> {
+            int age = rs.getInt(3);
+            boolean ageNull = rs.wasNull();
+            long teamId = rs.getLong(4);
+            boolean teamNull = rs.wasNull();
+            columns.add(rs.getLong(1), rs.getString(2), age, ageNull, teamId, teamNull, rs.getString(5));
+        });
+        return columns;
+    }
+
+    private void flushIfWritable() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            em.flush();
+        }
+    }
+
+    private PreparedStatementCreator statement(MemberSearchCondition condition, int maxRows) {
+        MemberSearchShape shape = MemberSearchShape.of(condition);
+        return con -> {
+            String sql = shape.getContentSql();
+            statementListeners.forEach(listener -> listener.onStatement(sql));
+            PreparedStatement ps = con.prepareStatement(sql);
+            if (maxRows > 0) {
+                ps.setMaxRows(maxRows);
+            }
+            bind(ps, shape, condition);
+            return ps;
+        };
+    }
+
+    private static void bind(PreparedStatement ps, MemberSearchShape shape, MemberSearchCondition condition) throws SQLException {
+        int index = 1;
+        if (shape.has(MemberSearchShape.USERNAME)) {
+            ps.setString(index++, condition.getUsername());
+        }
+        if (shape.has(MemberSearchShape.TEAM_NAME)) {
+            ps.setString(index++, condition.getTeamName());
+        }
+        if (shape.has(MemberSearchShape.AGE_GOE)) {
+            ps.setInt(index++, condition.getAgeGoe());
+        }
+        if (shape.has(MemberSearchShape.AGE_LOE)) {
+            ps.setInt(index, condition.getAgeLoe());
+        }
+    }
+}
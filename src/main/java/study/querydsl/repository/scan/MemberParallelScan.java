@@ -0,0 +1,268 @@
+package study.querydsl.repository.scan;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.config.MemberSearchProperties;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.service.MemberSearchExecutor;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static java.util.Objects.nonNull;
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * member 전체를 읽는 조회를 id 구간으로 나눠서 여러 커넥션으로 동시에 실행
+ * 여러 트랜잭션에 걸쳐 읽으므로 search() 에서는 쓰지 않고, 호출하는 쪽(export)이 명시적으로 사용한다.
+ * - min(id) ~ max(id) 를 chunkSize 크기의 id 구간으로 나누고, 구간마다 같은 조건에 id between 을 붙인다.
+ *   테이블이 커지면 구간 수가 늘어날 뿐 구간 하나의 row 수는 chunkSize 를 넘지 않는다.
+ * - 구간마다 worker 스레드에서 읽기 전용 트랜잭션을 새로 열어서 EntityManager 와 커넥션을 따로 쓴다.
+ * - ORDERED 는 구간 순서(id 순)대로, UNORDERED 는 먼저 끝난 구간부터 consumer 에 넘긴다.
+ *   consumer 는 호출한 스레드에서 실행되고, 미리 읽어두는 구간은 worker 수의 2배까지만 둔다.
+ *   그래서 힙에 올라가는 row 는 최대 chunkSize * parallelism * 2 개다.
+ * 구간마다 트랜잭션이 다르므로 전체가 한 시점의 스냅샷은 아니다. (쓰기 트랜잭션 안에서 호출하면 IllegalStateException)
+ * worker 는 JDBC 커넥션을 기다리는 작업이라 가상 스레드 대신 worker 수 만큼의 고정 스레드 풀을 쓴다.
+ * 이 스레드 풀을 모든 호출이 나눠 쓰므로 동시에 여러 export 가 실행돼도 scan 이 쓰는 커넥션은 parallelism 개를 넘지 않는다.
+ * 나머지 커넥션은 검색 요청(MemberSearchExecutor)이 쓰도록 parallelism 은 커넥션 풀 크기의 절반까지만 허용한다.
+ */
+@Slf4j
+@Component
+public class MemberParallelScan {
+
+    public enum Merge {
+        ORDERED, UNORDERED
+    }
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate chunkTransaction;
+    private final boolean enabled;
+    private final int parallelism;
+    private final int chunkSize;
+    private final ExecutorService executor;
+
+    public MemberParallelScan(JPAQueryFactory queryFactory,
+                              PlatformTransactionManager transactionManager,
+                              DataSource dataSource,
+                              MemberSearchProperties properties) {
+        MemberSearchProperties.Scan scan = properties.getScan();
+        this.queryFactory = queryFactory;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setReadOnly(true);
+        this.enabled = scan.isEnabled();
+        this.parallelism = parallelism(scan.getParallelism(), MemberSearchExecutor.connectionPoolSize(dataSource),
+                Runtime.getRuntime().availableProcessors());
+        this.chunkSize = Math.max(1, scan.getChunkSize());
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = enabled ? Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "member-scan-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        if (enabled) {
+            log.info("member parallel scan: {} workers, chunk size {}", parallelism, chunkSize);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 0 이면 min(CPU 수, 커넥션 풀 크기 / 4), 지정한 값도 커넥션 풀 크기의 절반을 넘지 않는다.
+     */
+    static int parallelism(int configured, int poolSize, int processors) {
+        int budget = Math.max(1, poolSize / 2);
+        if (configured <= 0) {
+            return Math.max(1, Math.min(processors, poolSize / 4));
+        }
+        if (configured > budget) {
+            log.warn("member.search.scan.parallelism {} exceeds half of the connection pool ({}), using {}", configured, poolSize, budget);
+            return budget;
+        }
+        return configured;
+    }
+
+    /**
+     * search(condition) 과 같은 조건의 결과를 구간 단위로 consumer 에 넘긴다. (export 등)
+     */
+    public void forEachChunk(MemberSearchCondition condition, Merge merge, Consumer<List<MemberTeamDto>> consumer) {
+        forEachChunk(memberTeamDto(), where(condition), merge, consumer);
+    }
+
+    /**
+     * member left join team 에 where 조건으로 조회한 결과를 구간 단위로 consumer 에 넘긴다.
+     * ORDERED 면 구간 안에서도 member.id 순서로 정렬한다.
+     */
+    public <T> void forEachChunk(Expression<T> projection, Predicate where, Merge merge, Consumer<List<T>> consumer) {
+        if (isWritableTransaction()) {
+            throw new IllegalStateException("parallel scan must not run inside a write transaction");
+        }
+        Tuple range = queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .fetchOne();
+        Long minId = range == null ? null : range.get(member.id.min());
+        Long maxId = range == null ? null : range.get(member.id.max());
+        if (minId == null || maxId == null) {
+            return;
+        }
+
+        List<long[]> chunks = split(minId, maxId, chunkSize);
+        // 꺼져 있으면 같은 구간을 호출한 스레드에서 차례로 읽는다.
+        if (!enabled) {
+            for (long[] chunk : chunks) {
+                consumer.accept(fetchChunk(projection, where, merge, chunk));
+            }
+            return;
+        }
+
+        int window = parallelism * 2;
+        if (merge == Merge.ORDERED) {
+            mergeOrdered(chunks, window, chunk -> fetchChunk(projection, where, merge, chunk), consumer);
+        } else {
+            mergeUnordered(chunks, window, chunk -> fetchChunk(projection, where, merge, chunk), consumer);
+        }
+    }
+
+    private <T> List<T> fetchChunk(Expression<T> projection, Predicate where, Merge merge, long[] chunk) {
+        return chunkTransaction.execute(status -> {
+            JPAQuery<T> query = queryFactory
+                    .select(projection)
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(where, member.id.between(chunk[0], chunk[1]))
+                    .setHint(QueryHints.HINT_READONLY, true);
+            if (merge == Merge.ORDERED) {
+                query.orderBy(member.id.asc());
+            }
+            return query.fetch();
+        });
+    }
+
+    private <T> void mergeOrdered(List<long[]> chunks, int window, ChunkQuery<T> query, Consumer<List<T>> consumer) {
+        Deque<Future<List<T>>> inFlight = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (next < chunks.size() || !inFlight.isEmpty()) {
+                while (next < chunks.size() && inFlight.size() < window) {
+                    long[] chunk = chunks.get(next++);
+                    inFlight.add(executor.submit(() -> query.fetch(chunk)));
+                }
+                consumer.accept(await(inFlight.peekFirst()));
+                inFlight.removeFirst();
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private <T> void mergeUnordered(List<long[]> chunks, int window, ChunkQuery<T> query, Consumer<List<T>> consumer) {
+        CompletionService<List<T>> completion = new ExecutorCompletionService<>(executor);
+        List<Future<List<T>>> submitted = new ArrayList<>(chunks.size());
+        int next = 0;
+        int pending = 0;
+        try {
+            while (next < chunks.size() || pending > 0) {
+                while (next < chunks.size() && pending < window) {
+                    long[] chunk = chunks.get(next++);
+                    submitted.add(completion.submit(() -> query.fetch(chunk)));
+                    pending++;
+                }
+                Future<List<T>> done;
+                try {
+                    done = completion.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("parallel scan interrupted", e);
+                }
+                pending--;
+                consumer.accept(await(done));
+            }
+        } finally {
+            submitted.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("parallel scan interrupted", e);
+        } catch (CancellationException e) {
+            throw new IllegalStateException("parallel scan chunk cancelled", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("parallel scan chunk failed", cause);
+        }
+    }
+
+    // [minId, maxId] 를 길이 chunkSize 이하의 겹치지 않는 닫힌 구간으로 나눈다.
+    static List<long[]> split(long minId, long maxId, int chunkSize) {
+        List<long[]> result = new ArrayList<>();
+        for (long from = minId; from <= maxId; from += chunkSize) {
+            result.add(new long[]{from, Math.min(maxId, from + chunkSize - 1)});
+        }
+        return result;
+    }
+
+    private static QMemberTeamDto memberTeamDto() {
+        return new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name);
+    }
+
+    private static Predicate where(MemberSearchCondition condition) {
+        return ExpressionUtils.allOf(
+                hasText(condition.getUsername()) ? member.username.eq(condition.getUsername()) : null,
+                hasText(condition.getTeamName()) ? team.name.eq(condition.getTeamName()) : null,
+                nonNull(condition.getAgeGoe()) ? member.age.goe(condition.getAgeGoe()) : null,
+                nonNull(condition.getAgeLoe()) ? member.age.loe(condition.getAgeLoe()) : null);
+    }
+
+    private static boolean isWritableTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ChunkQuery<T> {
+        List<T> fetch(long[] chunk);
+    }
+}
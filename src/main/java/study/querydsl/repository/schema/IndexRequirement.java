@@ -0,0 +1,39 @@
+package study.querydsl.repository.schema;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * table 에 columns 를 선두 컬럼으로 하는 인덱스가 있어야 한다는 조건
+ */
+@Getter
+@EqualsAndHashCode
+public class IndexRequirement {
+
+    private final String table;
+    private final List<String> columns;
+
+    public IndexRequirement(String table, String... columns) {
+        this.table = table;
+        this.columns = List.of(columns);
+    }
+
+    public boolean isSatisfiedBy(List<String> indexColumns) {
+        if (indexColumns.size() < columns.size()) {
+            return false;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (!columns.get(i).equalsIgnoreCase(indexColumns.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return table + "(" + String.join(", ", columns) + ")";
+    }
+}
@@ -0,0 +1,117 @@
+package study.querydsl.repository.schema;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.querydsl.config.MemberSearchProperties;
+import study.querydsl.repository.MemberSearchShape;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 시작 시 search() 의 모든 조회 형태에 필요한 인덱스가 실제 DB에 있는지 확인한다.
+ * EntityManagerFactory 를 먼저 만들게 해서 ddl-auto 로 스키마가 만들어진 뒤에 확인한다.
+ */
+@Slf4j
+@Component
+public class SearchIndexVerifier {
+
+    public enum Mode {
+        FAIL, WARN, OFF
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Mode mode;
+
+    public SearchIndexVerifier(JdbcTemplate jdbcTemplate,
+                               EntityManagerFactory entityManagerFactory,
+                               MemberSearchProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mode = properties.getIndexVerification();
+    }
+
+    @PostConstruct
+    public void verifyOnStartup() {
+        if (mode == Mode.OFF) {
+            return;
+        }
+
+        Map<IndexRequirement, List<MemberSearchShape>> missing = findMissing();
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder("search predicates without a supporting index:");
+        missing.forEach((index, shapes) -> message.append("\n  ").append(index).append(" <- ").append(shapes));
+        if (mode == Mode.FAIL) {
+            throw new IllegalStateException(message.toString());
+        }
+        log.warn(message.toString());
+    }
+
+    /**
+     * 없는 인덱스와 그 인덱스가 필요한 조회 형태
+     */
+    public Map<IndexRequirement, List<MemberSearchShape>> findMissing() {
+        Map<IndexRequirement, List<MemberSearchShape>> required = new LinkedHashMap<>();
+        for (MemberSearchShape shape : MemberSearchShape.all()) {
+            for (IndexRequirement index : shape.requiredIndexes()) {
+                required.computeIfAbsent(index, key -> new ArrayList<>()).add(shape);
+            }
+        }
+
+        Set<String> tables = new LinkedHashSet<>();
+        required.keySet().forEach(index -> tables.add(index.getTable()));
+        Map<String, List<List<String>>> indexes = jdbcTemplate.execute((ConnectionCallback<Map<String, List<List<String>>>>) con -> {
+            Map<String, List<List<String>>> result = new LinkedHashMap<>();
+            for (String table : tables) {
+                result.put(table, indexColumns(con.getMetaData(), table));
+            }
+            return result;
+        });
+
+        Map<IndexRequirement, List<MemberSearchShape>> missing = new LinkedHashMap<>();
+        required.forEach((index, shapes) -> {
+            boolean supported = indexes.get(index.getTable()).stream().anyMatch(index::isSatisfiedBy);
+            if (!supported) {
+                missing.put(index, shapes);
+            }
+        });
+        return missing;
+    }
+
+    // 인덱스별 컬럼 목록 (순서대로)
+    private static List<List<String>> indexColumns(DatabaseMetaData metaData, String table) throws SQLException {
+        String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        Map<String, TreeMap<Short, String>> columnsByIndex = new LinkedHashMap<>();
+
+        try (ResultSet rs = metaData.getIndexInfo(null, null, name, false, true)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (indexName == null || column == null) {
+                    continue;
+                }
+                columnsByIndex.computeIfAbsent(indexName, key -> new TreeMap<>())
+                        .put(rs.getShort("ORDINAL_POSITION"), column);
+            }
+        }
+
+        List<List<String>> result = new ArrayList<>();
+        columnsByIndex.values().forEach(columns -> result.add(new ArrayList<>(columns.values())));
+        return result;
+    }
+}
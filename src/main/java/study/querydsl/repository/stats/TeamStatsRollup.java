@@ -0,0 +1,433 @@
+package study.querydsl.repository.stats;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.changefeed.ChangeBatch;
+import study.querydsl.changefeed.ChangeEvent;
+import study.querydsl.changefeed.ChangeListener;
+import study.querydsl.changefeed.TransactionalChangeListener;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.TeamStats;
+import study.querydsl.entity.TeamStatsDelta;
+import study.querydsl.repository.TeamStatsRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static study.querydsl.entity.QTeamStats.teamStats;
+
+/**
+ * team_stats rollup 유지
+ * - 쓰기 트랜잭션 안에서는 팀별 증감분을 team_stats_delta 에 insert 만 한다. (team_stats row 를 잠그지 않는다)
+ * - 커밋 후 백그라운드 스레드 하나가 쌓인 증감분을 팀별로 합쳐서 team_stats 에 반영하고 지운다.
+ *   증감분은 더하기만 하므로 커밋 순서와 반영 순서가 달라도 결과가 같다.
+ *   최소/최대 나이는 추가만 있으면 least/greatest 로, 빠진 회원이 있으면 (team_id, age) 인덱스로 다시 구한다.
+ * - rollup row 가 없는 팀, 새로 만든 팀은 그 팀만 member 에서 다시 집계하고 그 팀의 증감분을 버린다.
+ *   팀 이름은 이벤트 값 대신 team 에서 다시 읽는다.
+ * - 대상을 알 수 없는 변경(unknown, 변경 전 상태 없는 update/delete)이 커밋되면 전체를 다시 집계한다.
+ *   다시 집계하는 동안에는 isReady() 가 false 라서 조회는 member 를 직접 집계한다.
+ * 반영과 재집계는 REPEATABLE READ 트랜잭션에서 실행해서 member 집계와 증분 삭제가 같은 스냅샷을 보게 한다.
+ * 커밋 직후 반영되기 전까지는 이전 값으로 응답할 수 있다.
+ * team.stats.rollup=false 면 빈으로 등록하지 않는다. (TransactionalChangeListener 도 없으므로 트랜잭션 밖 기록을 막지 않는다)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "team.stats", name = "rollup", havingValue = "true", matchIfMissing = true)
+public class TeamStatsRollup implements TransactionalChangeListener, ChangeListener {
+
+    private static final String UPDATE_COUNTS =
+            "update team_stats set member_count = member_count + ?, age_count = age_count + ?, age_sum = age_sum + ?" +
+                    " where team_id = ?";
+    private static final String EXTEND_MIN_MAX =
+            "update team_stats set age_min = least(coalesce(age_min, ?), ?), age_max = greatest(coalesce(age_max, ?), ?)" +
+                    " where team_id = ?";
+    private static final String RECOMPUTE_MIN_MAX =
+            "update team_stats set age_min = (select min(m.age) from member m where m.team_id = ?)," +
+                    " age_max = (select max(m.age) from member m where m.team_id = ?) where team_id = ?";
+    private static final String DELETE_TEAM = "delete from team_stats where team_id = ?";
+    private static final String REFRESH_TEAM =
+            "insert into team_stats (team_id, team_name, member_count, age_count, age_sum, age_min, age_max)" +
+                    " select t.id, t.name, count(m.id), count(m.age), coalesce(sum(m.age), 0), min(m.age), max(m.age)" +
+                    " from team t left join member m on m.team_id = t.id where t.id = ? group by t.id, t.name";
+    private static final String RENAME_TEAM =
+            "update team_stats set team_name = (select t.name from team t where t.id = ?) where team_id = ?";
+    private static final String INSERT_PENDING =
+            "insert into team_stats_delta (team_id, kind, member_count, age_count, age_sum, age_min, age_max, removed_age)" +
+                    " values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_PENDING =
+            "select id, team_id, kind, member_count, age_count, age_sum, age_min, age_max, removed_age" +
+                    " from team_stats_delta order by id limit ?";
+    private static final String DELETE_PENDING = "delete from team_stats_delta where id = ?";
+    private static final String DELETE_TEAM_PENDING = "delete from team_stats_delta where team_id = ?";
+    private static final String SELECT_ALL_PENDING_IDS = "select id from team_stats_delta";
+
+    private static final int APPLY_BATCH_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JPAQueryFactory queryFactory;
+    private final TeamStatsRepository teamStatsRepository;
+    private final TransactionTemplate applyTransaction;
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final AtomicBoolean applyScheduled = new AtomicBoolean();
+    // 재집계가 필요한 변경이 올 때마다 증가
+    private final AtomicLong generation = new AtomicLong();
+    private final ExecutorService applier;
+    private volatile boolean ready;
+
+    public TeamStatsRollup(JdbcTemplate jdbcTemplate,
+                           JPAQueryFactory queryFactory,
+                           TeamStatsRepository teamStatsRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queryFactory = queryFactory;
+        this.teamStatsRepository = teamStatsRepository;
+        this.applyTransaction = new TransactionTemplate(transactionManager);
+        this.applyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.applyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.applier = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "team-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        scheduleRebuild();
+    }
+
+    /**
+     * rollup 이 member 와 일치하는 상태인지 (false 면 aggregateStats 로 조회)
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 전체 팀을 다시 집계해서 rollup 을 덮어쓴다, 증감분 반영(applyPending)과 동시에 실행되지 않는다.
+     * 집계에 포함된 변경의 증감분, 즉 같은 스냅샷에서 보이는 증감분만 지운다.
+     * 집계를 시작한 뒤 재집계가 필요한 변경이 들어왔으면 ready 로 바꾸지 않는다. (이미 다음 재집계가 예약돼 있다)
+     */
+    public synchronized void rebuild() {
+        long loadingGeneration = generation.get();
+        long start = System.nanoTime();
+        // team_stats 는 applier 스레드에서만 쓰므로 잠그지 않는다.
+        int teams = applyTransaction.execute(status -> {
+            // 집계보다 먼저 읽어서 스냅샷을 잡는다. MySQL 처럼 delete 가 최신 row 를 보는 DB 에서 전체를 지우면
+            // 스냅샷 뒤에 커밋된 증감분까지 사라지므로, 여기서 보인 id 만 지운다.
+            // (id 는 insert 순서라 커밋 순서와 다를 수 있으므로 최대 id 이하로 지우지 않는다)
+            List<Object[]> included = jdbcTemplate.query(SELECT_ALL_PENDING_IDS, (rs, rowNum) -> new Object[]{rs.getLong(1)});
+
+            Map<Long, TeamStats> existing = new HashMap<>();
+            for (TeamStats stats : queryFactory.selectFrom(teamStats).fetch()) {
+                existing.put(stats.getTeamId(), stats);
+            }
+
+            List<TeamStatsDto> aggregated = teamStatsRepository.aggregateStats(null);
+            for (TeamStatsDto row : aggregated) {
+                TeamStats stats = existing.remove(row.getTeamId());
+                if (stats == null) {
+                    stats = teamStatsRepository.save(new TeamStats(row.getTeamId(), row.getTeamName()));
+                }
+                stats.update(row.getTeamName(), row.getMemberCount(), row.getAgeCount(), row.getAgeSum(), row.getAgeMin(), row.getAgeMax());
+            }
+            teamStatsRepository.deleteAllInBatch(existing.values());
+            if (!included.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_PENDING, included);
+            }
+            return aggregated.size();
+        });
+        // 집계하는 동안 또 unknown 변경이 커밋됐으면 포함됐는지 알 수 없으므로 다음 재집계까지 사용하지 않는다.
+        if (generation.get() == loadingGeneration) {
+            ready = true;
+        }
+        log.info("team stats rebuilt: {} teams in {}ms (ready: {})", teams, (System.nanoTime() - start) / 1_000_000, ready);
+    }
+
+    /**
+     * 팀별 증감분을 team_stats_delta 에 기록만 한다, 반영은 커밋 후 applier 스레드에서 한다.
+     */
+    @Override
+    public void onChangesInTransaction(List<ChangeEvent> events) {
+        Map<Long, Delta> deltas = new LinkedHashMap<>();
+        List<Object[]> pending = new ArrayList<>();
+
+        for (ChangeEvent event : events) {
+            // 대상을 모르는 변경은 커밋 후 onChanges 에서 전체 재집계
+            if (requiresRebuild(event)) {
+                continue;
+            }
+            if (event.getEntity() == ChangeEvent.Entity.TEAM) {
+                pending.add(pendingRow(event.getId(), teamKind(event.getOperation()), new Delta()));
+                continue;
+            }
+
+            MemberTeamDto before = event.getBefore();
+            MemberTeamDto after = event.getAfter();
+            // 이름만 바뀐 회원 등 팀과 나이가 그대로면 집계에 영향 없음
+            if (before != null && after != null
+                    && Objects.equals(before.getTeamId(), after.getTeamId()) && Objects.equals(before.getAge(), after.getAge())) {
+                continue;
+            }
+            if (before != null && before.getTeamId() != null) {
+                deltas.computeIfAbsent(before.getTeamId(), id -> new Delta()).remove(before.getAge());
+            }
+            if (after != null && after.getTeamId() != null) {
+                deltas.computeIfAbsent(after.getTeamId(), id -> new Delta()).add(after.getAge());
+            }
+        }
+
+        for (Map.Entry<Long, Delta> delta : deltas.entrySet()) {
+            pending.add(pendingRow(delta.getKey(), TeamStatsDelta.Kind.MEMBERS, delta.getValue()));
+        }
+        if (!pending.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PENDING, pending);
+        }
+    }
+
+    /**
+     * 쌓인 증감분을 APPLY_BATCH_SIZE 씩 읽어서 팀별로 합쳐 반영하고 지운다.
+     */
+    public synchronized void applyPending() {
+        int applied;
+        do {
+            applied = applyTransaction.execute(status -> applyPendingPage());
+        } while (applied == APPLY_BATCH_SIZE);
+    }
+
+    private int applyPendingPage() {
+        List<Long> ids = new ArrayList<>();
+        Map<Long, Delta> deltas = new LinkedHashMap<>();
+        Set<Long> refresh = new LinkedHashSet<>();
+        Set<Long> renamed = new LinkedHashSet<>();
+        Set<Long> deleted = new LinkedHashSet<>();
+
+        jdbcTemplate.query(SELECT_PENDING, (RowCallbackHandler) rs -> {
+            ids.add(rs.getLong("id"));
+            Long teamId = rs.getLong("team_id");
+            switch (TeamStatsDelta.Kind.valueOf(rs.getString("kind"))) {
+                case MEMBERS:
+                    deltas.computeIfAbsent(teamId, id -> new Delta()).merge(rs.getLong("member_count"), rs.getLong("age_count"),
+                            rs.getLong("age_sum"), rs.getObject("age_min", Integer.class), rs.getObject("age_max", Integer.class),
+                            rs.getBoolean("removed_age"));
+                    break;
+                case CREATE:
+                    refresh.add(teamId);
+                    break;
+                case RENAME:
+                    renamed.add(teamId);
+                    break;
+                case DELETE:
+                    deleted.add(teamId);
+                    break;
+            }
+        }, APPLY_BATCH_SIZE);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // 다시 집계할 팀은 member 에서 읽으므로 증분을 적용하지 않는다.
+        deltas.keySet().removeAll(refresh);
+        deltas.keySet().removeAll(deleted);
+        refresh.addAll(applyDeltas(deltas));
+        refresh.removeAll(deleted);
+
+        for (Long teamId : refresh) {
+            jdbcTemplate.update(DELETE_TEAM, teamId);
+            jdbcTemplate.update(REFRESH_TEAM, teamId);
+            // 이번에 읽지 않은 뒤쪽 증감분도 이미 집계에 들어 있다.
+            jdbcTemplate.update(DELETE_TEAM_PENDING, teamId);
+        }
+        for (Long teamId : renamed) {
+            jdbcTemplate.update(RENAME_TEAM, teamId, teamId);
+        }
+        for (Long teamId : deleted) {
+            jdbcTemplate.update(DELETE_TEAM, teamId);
+            jdbcTemplate.update(DELETE_TEAM_PENDING, teamId);
+        }
+
+        List<Object[]> applied = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            applied.add(new Object[]{id});
+        }
+        jdbcTemplate.batchUpdate(DELETE_PENDING, applied);
+        return ids.size();
+    }
+
+    // rollup row 가 없어서 반영하지 못한 팀을 돌려준다.
+    private List<Long> applyDeltas(Map<Long, Delta> deltas) {
+        List<Long> missing = new ArrayList<>();
+        if (deltas.isEmpty()) {
+            return missing;
+        }
+
+        List<Long> teamIds = new ArrayList<>(deltas.keySet());
+        List<Object[]> counts = new ArrayList<>(teamIds.size());
+        for (Long teamId : teamIds) {
+            Delta delta = deltas.get(teamId);
+            counts.add(new Object[]{delta.memberCount, delta.ageCount, delta.ageSum, teamId});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_COUNTS, counts);
+
+        List<Object[]> extend = new ArrayList<>();
+        List<Object[]> recompute = new ArrayList<>();
+        for (int i = 0; i < teamIds.size(); i++) {
+            Long teamId = teamIds.get(i);
+            // 드라이버가 건수 대신 SUCCESS_NO_INFO(-2) 를 줄 수 있으므로 0 일 때만 없는 row 로 본다.
+            if (updated[i] == 0) {
+                missing.add(teamId);
+                continue;
+            }
+            Delta delta = deltas.get(teamId);
+            if (delta.removedAge) {
+                recompute.add(new Object[]{teamId, teamId, teamId});
+            } else if (delta.addedMin != null) {
+                extend.add(new Object[]{delta.addedMin, delta.addedMin, delta.addedMax, delta.addedMax, teamId});
+            }
+        }
+        if (!extend.isEmpty()) {
+            jdbcTemplate.batchUpdate(EXTEND_MIN_MAX, extend);
+        }
+        if (!recompute.isEmpty()) {
+            jdbcTemplate.batchUpdate(RECOMPUTE_MIN_MAX, recompute);
+        }
+        return missing;
+    }
+
+    private static Object[] pendingRow(Long teamId, TeamStatsDelta.Kind kind, Delta delta) {
+        return new Object[]{teamId, kind.name(), delta.memberCount, delta.ageCount, delta.ageSum,
+                delta.addedMin, delta.addedMax, delta.removedAge};
+    }
+
+    private static TeamStatsDelta.Kind teamKind(ChangeEvent.Operation operation) {
+        switch (operation) {
+            case INSERT:
+                return TeamStatsDelta.Kind.CREATE;
+            case UPDATE:
+                return TeamStatsDelta.Kind.RENAME;
+            default:
+                return TeamStatsDelta.Kind.DELETE;
+        }
+    }
+
+    // 변경 전 상태가 없는 회원 update/delete 는 증감분을 알 수 없다.
+    private static boolean requiresRebuild(ChangeEvent event) {
+        return event.isUnknown()
+                || (event.getEntity() == ChangeEvent.Entity.MEMBER && event.getOperation() != ChangeEvent.Operation.INSERT && event.getBefore() == null);
+    }
+
+    @Override
+    public void onChanges(ChangeBatch batch) {
+        for (ChangeEvent event : batch.getEvents()) {
+            if (requiresRebuild(event)) {
+                generation.incrementAndGet();
+                ready = false;
+                scheduleRebuild();
+                return;
+            }
+        }
+        scheduleApply();
+    }
+
+    // 연속된 재집계 요청은 한 번으로 합친다.
+    private void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        applier.execute(() -> {
+            rebuildScheduled.set(false);
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("team stats rebuild failed, reading live aggregates", e);
+            }
+        });
+    }
+
+    // 반영 전에 커밋된 변경은 같은 반영에 합친다.
+    private void scheduleApply() {
+        if (!applyScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        applier.execute(() -> {
+            applyScheduled.set(false);
+            try {
+                applyPending();
+            } catch (RuntimeException e) {
+                log.warn("team stats update failed, rebuilding", e);
+                ready = false;
+                scheduleRebuild();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        applier.shutdownNow();
+    }
+
+    private static class Delta {
+        private long memberCount;
+        private long ageCount;
+        private long ageSum;
+        private Integer addedMin;
+        private Integer addedMax;
+        private boolean removedAge;
+
+        void add(Integer age) {
+            memberCount++;
+            if (age == null) {
+                return;
+            }
+            ageCount++;
+            ageSum += age;
+            addedMin = addedMin == null ? age : Math.min(addedMin, age);
+            addedMax = addedMax == null ? age : Math.max(addedMax, age);
+        }
+
+        void merge(long memberCount, long ageCount, long ageSum, Integer addedMin, Integer addedMax, boolean removedAge) {
+            this.memberCount += memberCount;
+            this.ageCount += ageCount;
+            this.ageSum += ageSum;
+            if (addedMin != null) {
+                this.addedMin = this.addedMin == null ? addedMin : Math.min(this.addedMin, addedMin);
+                this.addedMax = this.addedMax == null ? addedMax : Math.max(this.addedMax, addedMax);
+            }
+            this.removedAge |= removedAge;
+        }
+
+        void remove(Integer age) {
+            memberCount--;
+            if (age == null) {
+                return;
+            }
+            ageCount--;
+            ageSum -= age;
+            removedAge = true;
+        }
+    }
+}
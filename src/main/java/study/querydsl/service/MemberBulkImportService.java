@@ -0,0 +1,215 @@
+package study.querydsl.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.changefeed.ChangeEvent;
+import study.querydsl.changefeed.ChangeFeed;
+import study.querydsl.config.MemberImportProperties;
+import study.querydsl.dto.MemberImportResult;
+import study.querydsl.dto.MemberImportRow;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 대량 회원 등록
+ * - chunkSize 단위로 트랜잭션을 나눠 커밋 (REQUIRES_NEW)
+ * - flushSize 마다 flush/clear 해서 영속성 컨텍스트가 커지지 않게 하고, hibernate.jdbc.batch_size 로 insert 를 묶어 보낸다.
+ * - id는 시퀀스 한 번에 Member.ID_ALLOCATION_SIZE 개씩 확보 (pooled-lo)
+ * importMembersJdbc 도 Member 의 IdentifierGenerator 로 id 를 받으므로 optimizer 설정과 상관없이 JPA 로 저장한 id 와 겹치지 않는다.
+ * importMembersJdbc 는 엔티티를 거치지 않고 JDBC batch insert 로 바로 넣는 빠른 경로
+ */
+@Slf4j
+@Service
+public class MemberBulkImportService {
+
+    private static final String INSERT_MEMBER_SQL =
+            "insert into member (id, age, username, team_id) values (?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final MemberImportProperties properties;
+    private final ChangeFeed changeFeed;
+    private final IdentifierGenerator memberIdGenerator;
+
+    public MemberBulkImportService(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   EntityManagerFactory entityManagerFactory,
+                                   MemberImportProperties properties,
+                                   ChangeFeed changeFeed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties;
+        this.changeFeed = changeFeed;
+
+        this.memberIdGenerator = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getMetamodel().entityPersister(Member.class).getIdentifierGenerator();
+    }
+
+    public MemberImportResult importMembers(Iterator<MemberImportRow> rows) {
+        long start = System.nanoTime();
+        long imported = 0;
+        TeamIds teamIds = new TeamIds();
+
+        while (rows.hasNext()) {
+            List<MemberImportRow> chunk = nextChunk(rows);
+            teamIds.inChunk(() -> chunkTransaction.executeWithoutResult(status -> persistChunk(chunk, teamIds)));
+            imported += chunk.size();
+        }
+
+        return report("jpa", imported, start);
+    }
+
+    public MemberImportResult importMembersJdbc(Iterator<MemberImportRow> rows) {
+        long start = System.nanoTime();
+        long imported = 0;
+        TeamIds teamIds = new TeamIds();
+
+        while (rows.hasNext()) {
+            List<MemberImportRow> chunk = nextChunk(rows);
+            teamIds.inChunk(() -> chunkTransaction.executeWithoutResult(status -> insertChunk(chunk, teamIds)));
+            imported += chunk.size();
+        }
+
+        return report("jdbc", imported, start);
+    }
+
+    private void persistChunk(List<MemberImportRow> chunk, TeamIds teamIds) {
+        int flushSize = properties.getFlushSize();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            MemberImportRow row = chunk.get(i);
+            Team team = row.getTeamName() == null ? null : em.getReference(Team.class, teamId(row.getTeamName(), teamIds));
+            em.persist(new Member(row.getUsername(), row.getAge(), team));
+
+            if ((i + 1) % flushSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+
+        em.flush();
+        em.clear();
+    }
+
+    private void insertChunk(List<MemberImportRow> chunk, TeamIds teamIds) {
+        // 엔티티 저장과 같은 generator(optimizer) 에서 id 를 받는다. 시퀀스는 chunk 트랜잭션의 커넥션으로 호출
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        List<Object[]> args = new ArrayList<>(properties.getFlushSize());
+        // 엔티티를 거치지 않으므로 insert 한 row 를 ChangeFeed 에 직접 기록
+        List<ChangeEvent> events = new ArrayList<>(chunk.size());
+
+        for (MemberImportRow row : chunk) {
+            Long teamId = row.getTeamName() == null ? null : teamId(row.getTeamName(), teamIds);
+            long id = ((Number) memberIdGenerator.generate(session, null)).longValue();
+            args.add(new Object[]{id, row.getAge(), row.getUsername(), teamId});
+            events.add(ChangeEvent.member(ChangeEvent.Operation.INSERT, id, null,
+                    new MemberTeamDto(id, row.getUsername(), row.getAge(), teamId, row.getTeamName())));
+
+            if (args.size() == properties.getFlushSize()) {
+                batchInsert(args);
+                args.clear();
+            }
+        }
+
+        if (!args.isEmpty()) {
+            batchInsert(args);
+        }
+        changeFeed.recordAll(events);
+    }
+
+    private void batchInsert(List<Object[]> args) {
+        changeFeed.capture(() -> jdbcTemplate.batchUpdate(INSERT_MEMBER_SQL, args));
+    }
+
+    // 팀 이름 -> id 는 import 전체에서 재사용, 없는 팀이면 새로 만든다.
+    private Long teamId(String teamName, TeamIds teamIds) {
+        Long cached = teamIds.get(teamName);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Long> found = em.createQuery("select t.id from Team t where t.name = :name order by t.id", Long.class)
+                .setParameter("name", teamName)
+                .setMaxResults(1)
+                .getResultList();
+
+        Long id;
+        if (found.isEmpty()) {
+            Team team = new Team(teamName);
+            em.persist(team);
+            // JDBC 경로의 FK 를 위해 바로 insert
+            em.flush();
+            id = team.getId();
+        } else {
+            id = found.get(0);
+        }
+
+        teamIds.put(teamName, id);
+        return id;
+    }
+
+    private List<MemberImportRow> nextChunk(Iterator<MemberImportRow> rows) {
+        List<MemberImportRow> chunk = new ArrayList<>(properties.getChunkSize());
+        while (rows.hasNext() && chunk.size() < properties.getChunkSize()) {
+            chunk.add(rows.next());
+        }
+        return chunk;
+    }
+
+    private MemberImportResult report(String path, long imported, long start) {
+        MemberImportResult result = new MemberImportResult(imported, Duration.ofNanos(System.nanoTime() - start));
+        log.info("member import ({}) finished: {} rows in {} ms ({} rows/sec)",
+                path, result.getRows(), result.getElapsed().toMillis(), Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    /**
+     * import 중에 찾거나 만든 팀 이름 -> id
+     * chunk 안에서 알게 된 id 는 그 chunk 가 커밋된 뒤에만 다음 chunk 에서 재사용한다.
+     * (롤백된 chunk 에서 만든 팀은 DB 에 없으므로 그 id 를 참조하면 안 된다.)
+     */
+    private static class TeamIds {
+        private final Map<String, Long> committed = new HashMap<>();
+        private final Map<String, Long> pending = new HashMap<>();
+
+        Long get(String teamName) {
+            Long id = committed.get(teamName);
+            return id != null ? id : pending.get(teamName);
+        }
+
+        void put(String teamName, Long id) {
+            pending.put(teamName, id);
+        }
+
+        void inChunk(Runnable chunk) {
+            try {
+                chunk.run();
+                committed.putAll(pending);
+            } finally {
+                pending.clear();
+            }
+        }
+    }
+}
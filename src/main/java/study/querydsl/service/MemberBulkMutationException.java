@@ -0,0 +1,19 @@
+package study.querydsl.service;
+
+import lombok.Getter;
+import study.querydsl.dto.MemberBulkResult;
+
+/**
+ * 벌크 update / delete 가 중간에 실패
+ * progress 는 마지막으로 커밋된 chunk 까지의 결과, progress.getLastId() 부터 다시 실행하면 된다.
+ */
+@Getter
+public class MemberBulkMutationException extends RuntimeException {
+
+    private final MemberBulkResult progress;
+
+    public MemberBulkMutationException(MemberBulkResult progress, Throwable cause) {
+        super("member bulk " + progress.getOperation() + " stopped after id " + progress.getLastId(), cause);
+        this.progress = progress;
+    }
+}
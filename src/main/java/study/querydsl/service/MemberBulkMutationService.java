@@ -0,0 +1,234 @@
+package study.querydsl.service;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.changefeed.ChangeCapturingQueryFactory;
+import study.querydsl.config.MemberBulkProperties;
+import study.querydsl.dto.MemberBulkResult;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 대량 회원 update / delete
+ * - where 조건에 맞는 id 를 id 순서로 chunkSize 개씩 골라서 id in 절로 실행 (keyset, 앞 chunk 결과와 관계없이 진행)
+ * - chunk 마다 별도 트랜잭션으로 커밋(REQUIRES_NEW) 해서 잠금 범위와 시간을 chunk 만큼으로 줄인다.
+ * - chunk 사이에 pause 만큼 쉬고, chunk 가 커밋될 때마다 progress 로 진행 상황을 알린다.
+ * - 실패하면 마지막으로 커밋된 id 를 담은 MemberBulkMutationException 을 던지고, 그 id 부터 이어서 실행할 수 있다.
+ * - 호출자의 영속성 컨텍스트에 있는 대상 엔티티만 chunk 마다 refresh / evict 한다. (em.clear 하지 않음)
+ *   호출자 영속성 컨텍스트에 flush 전 변경이 있는 회원이 있으면 그 변경이 사라지므로 실행하지 않고 IllegalStateException
+ * 실행은 ChangeCapturingQueryFactory 를 거치므로 변경된 row 는 ChangeFeed 에 기록된다.
+ * update / delete 절에는 join 을 쓸 수 없으므로 where 는 member 컬럼(과 서브쿼리)만 사용해야 한다.
+ * 호출자 트랜잭션에서 대상 row 를 수정해 둔 채로 호출하면 chunk 트랜잭션이 그 잠금을 기다리므로 먼저 커밋한다.
+ */
+@Slf4j
+@Service
+public class MemberBulkMutationService {
+
+    public enum Reconcile {
+        REFRESH, EVICT
+    }
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate chunkTransaction;
+    private final MemberBulkProperties properties;
+
+    public MemberBulkMutationService(ChangeCapturingQueryFactory queryFactory,
+                                     EntityManagerFactory entityManagerFactory,
+                                     PlatformTransactionManager transactionManager,
+                                     MemberBulkProperties properties) {
+        this.queryFactory = queryFactory;
+        this.entityManagerFactory = entityManagerFactory;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties;
+    }
+
+    /**
+     * 예: update(member.age.lt(28), clause -> clause.set(member.username, "비회원"))
+     */
+    public MemberBulkResult update(Predicate where, UnaryOperator<JPAUpdateClause> assignments) {
+        return update(where, assignments, 0L, progress -> { });
+    }
+
+    /**
+     * afterId 보다 큰 id 만 대상으로 실행 (처음이면 0, 이어서 실행하면 이전 결과의 lastId)
+     */
+    public MemberBulkResult update(Predicate where, UnaryOperator<JPAUpdateClause> assignments,
+                                   long afterId, Consumer<MemberBulkResult> progress) {
+        return run("update", where, afterId, progress, ids ->
+                assignments.apply(queryFactory.update(member))
+                        .where(member.id.in(ids), where)
+                        .execute());
+    }
+
+    public MemberBulkResult delete(Predicate where) {
+        return delete(where, 0L, progress -> { });
+    }
+
+    public MemberBulkResult delete(Predicate where, long afterId, Consumer<MemberBulkResult> progress) {
+        return run("delete", where, afterId, progress, ids ->
+                queryFactory.delete(member)
+                        .where(member.id.in(ids), where)
+                        .execute());
+    }
+
+    private MemberBulkResult run(String operation, Predicate where, long afterId,
+                                 Consumer<MemberBulkResult> progress, ChunkMutation mutation) {
+        // chunk 트랜잭션이 시작되기 전에 호출자의 영속성 컨텍스트를 잡아둔다.
+        EntityManager callerEm = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        Reconcile reconcile = operation.equals("delete") ? Reconcile.EVICT : properties.getReconcile();
+        rejectUnflushedMembers(callerEm);
+
+        long start = System.nanoTime();
+        long rows = 0;
+        long chunks = 0;
+        long lastId = afterId;
+
+        try {
+            while (true) {
+                long from = lastId;
+                Chunk chunk = chunkTransaction.execute(status -> {
+                    List<Long> ids = queryFactory
+                            .select(member.id)
+                            .from(member)
+                            .where(where, member.id.gt(from))
+                            .orderBy(member.id.asc())
+                            .limit(properties.getChunkSize())
+                            .fetch();
+                    return ids.isEmpty() ? null : new Chunk(ids, mutation.execute(ids));
+                });
+                if (chunk == null) {
+                    break;
+                }
+
+                rows += chunk.affected;
+                chunks++;
+                lastId = chunk.ids.get(chunk.ids.size() - 1);
+                reconcile(callerEm, chunk.ids, reconcile);
+
+                MemberBulkResult current = result(operation, rows, chunks, lastId, false, start);
+                progress.accept(current);
+                if (chunks % Math.max(1, properties.getLogEvery()) == 0) {
+                    log.info("member bulk {}: {} rows in {} chunks, last id {}", operation, rows, chunks, lastId);
+                }
+                pause();
+            }
+        } catch (RuntimeException e) {
+            throw new MemberBulkMutationException(result(operation, rows, chunks, lastId, false, start), e);
+        }
+
+        MemberBulkResult result = result(operation, rows, chunks, lastId, true, start);
+        log.info("member bulk {} finished: {} rows in {} chunks, {} ms", operation, rows, chunks, result.getElapsed().toMillis());
+        return result;
+    }
+
+    /**
+     * flush 하면 그 잠금을 chunk 트랜잭션이 기다리고, refresh / evict 하면 flush 전 변경이 버려지므로 실행 전에 막는다.
+     */
+    private static void rejectUnflushedMembers(EntityManager callerEm) {
+        if (callerEm == null || !callerEm.isOpen()) {
+            return;
+        }
+
+        SessionImplementor session = callerEm.unwrap(SessionImplementor.class);
+        // persist 후 아직 insert 되지 않은 회원, remove 후 아직 delete 되지 않은 회원은 chunk 트랜잭션에서 보이지 않는다.
+        Set<Serializable> memberTables = new HashSet<>(Arrays.asList(
+                session.getFactory().getMetamodel().entityPersister(Member.class).getQuerySpaces()));
+        if (session.getActionQueue().areTablesToBeUpdated(memberTables)) {
+            throw new IllegalStateException("members have queued inserts or deletes, commit them before a bulk mutation");
+        }
+
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            EntityEntry entityEntry = entry.getValue();
+            if (!(entry.getKey() instanceof Member) || entityEntry.getStatus() != Status.MANAGED || entityEntry.getLoadedState() == null) {
+                continue;
+            }
+            EntityPersister persister = entityEntry.getPersister();
+            Object[] current = persister.getPropertyValues(entry.getKey());
+            if (persister.findDirty(current, entityEntry.getLoadedState(), entry.getKey(), session) != null) {
+                throw new IllegalStateException("member " + entityEntry.getId() + " has unflushed changes, commit them before a bulk mutation");
+            }
+        }
+    }
+
+    /**
+     * 호출자 영속성 컨텍스트에 이미 올라와 있는 대상 엔티티만 다시 읽거나(refresh) 분리(evict)한다.
+     * 영속성 컨텍스트에 없는 id 는 조회하지 않는다.
+     */
+    private void reconcile(EntityManager callerEm, List<Long> ids, Reconcile reconcile) {
+        if (callerEm == null || !callerEm.isOpen()) {
+            return;
+        }
+
+        SessionImplementor session = callerEm.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        for (Long id : ids) {
+            Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+            if (managed == null) {
+                continue;
+            }
+            if (reconcile == Reconcile.REFRESH) {
+                // flush 전 변경이 없는 것은 rejectUnflushedMembers 에서 확인했다.
+                callerEm.refresh(managed);
+            } else {
+                callerEm.detach(managed);
+            }
+        }
+    }
+
+    private void pause() {
+        Duration pause = properties.getPause();
+        if (pause.isZero() || pause.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("member bulk mutation interrupted", e);
+        }
+    }
+
+    private static MemberBulkResult result(String operation, long rows, long chunks, long lastId, boolean completed, long start) {
+        return new MemberBulkResult(operation, rows, chunks, lastId, completed, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private interface ChunkMutation {
+        long execute(List<Long> ids);
+    }
+
+    private static class Chunk {
+        private final List<Long> ids;
+        private final long affected;
+
+        Chunk(List<Long> ids, long affected) {
+            this.ids = ids;
+            this.affected = affected;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package study.querydsl.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import study.querydsl.config.MemberSearchProperties;
+import study.querydsl.jdbc.SqlStatementRecorder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 검색 repository 호출을 서블릿 스레드 밖에서 실행한다.
+ * - SERVLET: 지금처럼 요청 스레드에서 바로 실행
+ * - ASYNC: Java 21 이상이면 가상 스레드, 아니면 고정 크기 스레드 풀에서 실행
+ * 동시 실행 수는 커넥션 풀 크기로 제한해서 JDBC 커넥션 대기로 스레드가 쌓이지 않게 한다.
+ * 실행을 기다리는 검색은 queue-capacity 개, queue-timeout 까지만 받고 나머지는 MemberSearchRejectedException(503)
+ * 작업 스레드에서 실행된 SQL 은 호출한 요청의 메트릭 / N+1 구간에 기록된다.
+ */
+@Slf4j
+@Component
+public class MemberSearchExecutor implements DisposableBean {
+
+    public enum Mode {
+        SERVLET, ASYNC
+    }
+
+    private final ExecutorService executor;
+    // 동시에 실행 중인 검색
+    private final Semaphore permits;
+    // 실행 중 + 대기 중인 검색
+    private final Semaphore admissions;
+    private final long queueTimeoutNanos;
+    private final SqlStatementRecorder statementRecorder;
+
+    public MemberSearchExecutor(MemberSearchProperties properties,
+                                DataSource dataSource,
+                                SqlStatementRecorder statementRecorder) {
+        this.statementRecorder = statementRecorder;
+        MemberSearchProperties.Execution execution = properties.getExecution();
+        if (execution.getMode() == Mode.SERVLET) {
+            this.executor = null;
+            this.permits = null;
+            this.admissions = null;
+            this.queueTimeoutNanos = 0;
+            return;
+        }
+
+        int maxConcurrency = execution.getMaxConcurrency() > 0
+                ? execution.getMaxConcurrency()
+                : connectionPoolSize(dataSource);
+        int queueCapacity = execution.getQueueCapacity();
+        ExecutorService virtualThreads = execution.isVirtualThreads() ? newVirtualThreadPerTaskExecutor() : null;
+
+        this.executor = virtualThreads != null
+                ? virtualThreads
+                : new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 0, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(Math.max(queueCapacity, 1)));
+        this.permits = new Semaphore(maxConcurrency);
+        this.admissions = new Semaphore(maxConcurrency + queueCapacity);
+        this.queueTimeoutNanos = execution.getQueueTimeout().toNanos();
+        log.info("member search executor: {} threads, max concurrency {}, queue {}",
+                virtualThreads != null ? "virtual" : "platform", maxConcurrency, queueCapacity);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (executor == null) {
+            return CompletableFuture.completedFuture(task.get());
+        }
+
+        if (!admissions.tryAcquire()) {
+            return CompletableFuture.failedFuture(new MemberSearchRejectedException("member search queue is full"));
+        }
+
+        Callable<T> callable = task::get;
+        QueuedSearch<T> search = new QueuedSearch<>(statementRecorder.wrap(callable), System.nanoTime() + queueTimeoutNanos);
+        try {
+            executor.execute(search);
+        } catch (RejectedExecutionException e) {
+            admissions.release();
+            return CompletableFuture.failedFuture(new MemberSearchRejectedException("member search executor is shut down"));
+        }
+        // 플랫폼 스레드 풀 큐에서 기다리는 동안에도 timeout 이 지나면 바로 응답한다.
+        CompletableFuture.delayedExecutor(queueTimeoutNanos, TimeUnit.NANOSECONDS).execute(search::expire);
+        return search.result;
+    }
+
+    /**
+     * 실행을 기다리는 검색 하나
+     * 허가를 받아 시작하거나 timeout 으로 만료되는 것 중 먼저 일어난 쪽만 결과를 정한다.
+     */
+    private class QueuedSearch<T> implements Runnable {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final Callable<T> task;
+        private final long deadline;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        QueuedSearch(Callable<T> task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            if (!acquire()) {
+                admissions.release();
+                return;
+            }
+
+            T value = null;
+            Throwable failure = null;
+            try {
+                value = task.call();
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                // 응답을 받은 호출자가 바로 다음 검색을 보내도 자리가 있도록 먼저 반환
+                permits.release();
+                admissions.release();
+            }
+
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        }
+
+        private boolean acquire() {
+            boolean acquired;
+            try {
+                long remaining = deadline - System.nanoTime();
+                acquired = remaining > 0 && permits.tryAcquire(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+
+            if (!acquired) {
+                expire();
+                return false;
+            }
+            if (!claimed.compareAndSet(false, true)) {
+                // 기다리는 사이 이미 만료 응답이 나감
+                permits.release();
+                return false;
+            }
+            return true;
+        }
+
+        void expire() {
+            if (claimed.compareAndSet(false, true)) {
+                result.completeExceptionally(new MemberSearchRejectedException("member search timed out in queue"));
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    public static int connectionPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("could not read connection pool size", e);
+        }
+        // HikariCP 기본값
+        return 10;
+    }
+
+    // 컴파일은 Java 11 기준이므로 Java 21 의 Executors.newVirtualThreadPerTaskExecutor 는 리플렉션으로 호출
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            log.info("virtual threads are not available on Java {}", System.getProperty("java.version"));
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("could not create virtual thread executor", e);
+        }
+    }
+}
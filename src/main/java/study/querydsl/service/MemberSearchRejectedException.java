@@ -0,0 +1,15 @@
+package study.querydsl.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * MemberSearchExecutor 대기열이 가득 찼거나, 대기열에서 queue-timeout 안에 실행되지 못한 검색
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class MemberSearchRejectedException extends RuntimeException {
+
+    public MemberSearchRejectedException(String message) {
+        super(message);
+    }
+}
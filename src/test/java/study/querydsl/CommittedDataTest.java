@@ -0,0 +1,36 @@
+package study.querydsl;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 다른 트랜잭션(chunk, worker, 커밋 후 발행)에서 보여야 하는 데이터를 쓰는 테스트의 부모
+ * 테스트 트랜잭션 대신 transactionTemplate 으로 커밋하고, 테스트가 끝나면 member / team 을 모두 지운다.
+ * 커밋이 필요 없는 테스트는 @Transactional 로 롤백한다.
+ */
+public abstract class CommittedDataTest {
+
+    @Autowired
+    protected EntityManager em;
+
+    @Autowired
+    protected JPAQueryFactory queryFactory;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void deleteCommittedData() {
+        transactionTemplate.executeWithoutResult(status -> {
+            queryFactory.delete(member).execute();
+            queryFactory.delete(team).execute();
+        });
+    }
+}
@@ -0,0 +1,159 @@
+package study.querydsl.changefeed;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import study.querydsl.CommittedDataTest;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+class ChangeFeedTest extends CommittedDataTest {
+
+    @Autowired
+    private ChangeCapturingQueryFactory capturingQueryFactory;
+
+    @Autowired
+    private RecordingListener listener;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @BeforeEach
+    void setUp() {
+        listener.batches.clear();
+    }
+
+    @Test
+    void entityChangesArePublishedAfterCommit() {
+        Long memberId = transactionTemplate.execute(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            Member memberA = new Member("memberA", 10, teamA);
+            em.persist(memberA);
+            return memberA.getId();
+        });
+
+        assertThat(listener.batches).hasSize(1);
+        assertThat(listener.batches.get(0).getEvents())
+                .extracting(ChangeEvent::getEntity, ChangeEvent::getOperation)
+                .containsExactly(
+                        tuple(ChangeEvent.Entity.TEAM, ChangeEvent.Operation.INSERT),
+                        tuple(ChangeEvent.Entity.MEMBER, ChangeEvent.Operation.INSERT));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamB = new Team("teamB");
+            em.persist(teamB);
+            em.find(Member.class, memberId).changeTeam(teamB);
+        });
+
+        ChangeBatch last = listener.batches.get(listener.batches.size() - 1);
+        ChangeEvent update = last.getEvents().stream()
+                .filter(event -> event.getEntity() == ChangeEvent.Entity.MEMBER)
+                .findFirst()
+                .orElseThrow();
+        assertThat(update.getOperation()).isEqualTo(ChangeEvent.Operation.UPDATE);
+        assertThat(update.getBefore().getTeamName()).isEqualTo("teamA");
+        assertThat(update.getAfter().getTeamName()).isEqualTo("teamB");
+        assertThat(last.getSequence()).isGreaterThan(listener.batches.get(0).getSequence());
+    }
+
+    @Test
+    void rollbackPublishesNothing() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Team("teamA"));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(listener.batches).isEmpty();
+    }
+
+    @Test
+    void bulkUpdateCapturesAffectedRows() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("member1", 10));
+            em.persist(new Member("member2", 20));
+            em.persist(new Member("member3", 30));
+        });
+        listener.batches.clear();
+
+        transactionTemplate.executeWithoutResult(status -> capturingQueryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .where(member.age.lt(25))
+                .execute());
+
+        assertThat(listener.batches).hasSize(1);
+        List<ChangeEvent> events = listener.batches.get(0).getEvents();
+        assertThat(events).noneMatch(ChangeEvent::isUnknown);
+        assertThat(events)
+                .extracting(event -> event.getBefore().getAge(), event -> event.getAfter().getAge())
+                .containsExactlyInAnyOrder(tuple(10, 11), tuple(20, 21));
+    }
+
+    @Test
+    void uncapturedBulkUpdateIsPublishedAsUnknown() {
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Member("member1", 10)));
+        listener.batches.clear();
+
+        transactionTemplate.executeWithoutResult(status -> queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .execute());
+
+        assertThat(listener.batches).hasSize(1);
+        assertThat(listener.batches.get(0).hasUnknown()).isTrue();
+    }
+
+    @Test
+    void nativeWriteIsPublishedAsUnknown() {
+        transactionTemplate.executeWithoutResult(status -> em.createNativeQuery("update member set age = age + 1").executeUpdate());
+
+        assertThat(listener.batches).hasSize(1);
+        assertThat(listener.batches.get(0).hasUnknown()).isTrue();
+    }
+
+    @Test
+    void knownChangeOutsideTransactionIsRejected() {
+        ChangeEvent inserted = ChangeEvent.team(ChangeEvent.Operation.INSERT, 1L, null, "teamA");
+
+        assertThatThrownBy(() -> changeFeed.record(inserted))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(listener.batches).isEmpty();
+
+        // unknown 은 커밋 후 구독자만 처리하므로 트랜잭션 밖에서도 발행한다.
+        changeFeed.recordUnknown(ChangeEvent.Entity.MEMBER, ChangeEvent.Operation.INSERT);
+        assertThat(listener.batches).hasSize(1);
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener implements ChangeListener {
+
+        private final List<ChangeBatch> batches = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onChanges(ChangeBatch batch) {
+            batches.add(batch);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package study.querydsl.changefeed;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import study.querydsl.repository.stats.TeamStatsRollup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+/**
+ * rollup 을 끄면 TransactionalChangeListener 가 없으므로 트랜잭션 밖에서 기록한 변경도 그대로 발행한다.
+ */
+@SpringBootTest(properties = "team.stats.rollup=false")
+class ChangeFeedWithoutRollupTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Test
+    void knownChangeOutsideTransactionIsPublished() {
+        assertThat(context.getBeanNamesForType(TeamStatsRollup.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(TransactionalChangeListener.class)).isEmpty();
+
+        assertThatCode(() -> changeFeed.record(ChangeEvent.team(ChangeEvent.Operation.INSERT, 1L, null, "teamA")))
+                .doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,179 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import study.querydsl.config.MemberSearchProperties;
+import study.querydsl.controller.json.MemberColumnsCodec;
+import study.querydsl.controller.json.MemberColumnsHttpMessageConverter;
+import study.querydsl.dto.KeysetCursor;
+import study.querydsl.dto.KeysetSlice;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.service.MemberSearchExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class MemberControllerTest {
+
+    MemberJpaRepository memberJpaRepository;
+    MemberRepository memberRepository;
+    MemberSearchExecutor memberSearchExecutor;
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void before() {
+        memberJpaRepository = mock(MemberJpaRepository.class);
+        memberRepository = mock(MemberRepository.class);
+        memberSearchExecutor = mock(MemberSearchExecutor.class);
+        MemberController controller = new MemberController(
+                memberJpaRepository, memberRepository, mock(MemberExporter.class), memberSearchExecutor);
+        MemberSearchProperties properties = new MemberSearchProperties();
+        properties.getStream().setTimeout(Duration.ofMinutes(30));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setAsyncRequestTimeout(5_000)
+                .setCallableInterceptors(new StreamingTimeoutInterceptor(properties))
+                // WebMvcConfig 처럼 JSON 컨버터 뒤에 등록
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(), new MemberColumnsHttpMessageConverter())
+                .build();
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v3/members").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(memberRepository);
+    }
+
+    @Test
+    void sizeOutOfRangeIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v3/members").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v3/members").param("size", String.valueOf(KeysetCursor.MAX_SIZE + 1)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void validCursorIsPassedThrough() throws Exception {
+        when(memberRepository.searchSlice(any(), any()))
+                .thenReturn(new KeysetSlice<>(List.of(), 20, false, null));
+
+        String cursor = KeysetCursor.first(20).next(10L).encode();
+        mockMvc.perform(get("/v3/members").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void unknownExportFormatIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v1/members/stream").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamingTimeoutAppliesOnlyToStreamEndpoint() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/v1/members/stream").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(stream.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+
+        when(memberSearchExecutor.submit(any())).thenReturn(new CompletableFuture<>());
+        MvcResult search = mockMvc.perform(get("/v1/members"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(search.getRequest().getAsyncContext().getTimeout()).isEqualTo(5_000);
+    }
+
+    @Test
+    void columnsSizeOutOfRangeIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v1/members/columns").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v1/members/columns").param("size", String.valueOf(MemberController.MAX_COLUMNS_SIZE + 1)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(memberSearchExecutor);
+    }
+
+    @Test
+    void columnsAreCappedBySize() throws Exception {
+        when(memberSearchExecutor.submit(any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(0).get()));
+        when(memberRepository.searchColumns(any(), anyInt())).thenReturn(new MemberTeamColumns(0));
+
+        mockMvc.perform(get("/v1/members/columns"))
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(get("/v1/members/columns").param("size", "10"))
+                .andExpect(request().asyncStarted());
+
+        verify(memberRepository).searchColumns(any(), eq(1000));
+        verify(memberRepository).searchColumns(any(), eq(10));
+    }
+
+    @Test
+    void columnsAreWrittenAsBinaryWhenAccepted() throws Exception {
+        List<MemberTeamDto> dtos = List.of(
+                new MemberTeamDto(1L, "member1", 10, 1L, "teamA"),
+                new MemberTeamDto(2L, "member2", null, null, null));
+        when(memberSearchExecutor.submit(any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(0).get()));
+        when(memberRepository.searchColumns(any(), anyInt())).thenReturn(MemberTeamColumns.of(dtos));
+
+        MvcResult started = mockMvc.perform(get("/v1/members/columns").accept(MemberColumnsHttpMessageConverter.MEMBER_COLUMNS))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MemberColumnsHttpMessageConverter.MEMBER_COLUMNS))
+                .andReturn();
+
+        MemberTeamColumns read = MemberColumnsCodec.read(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+        assertThat(read.toDtos()).isEqualTo(dtos);
+    }
+
+    @Test
+    void searchWithoutAcceptIsJson() throws Exception {
+        when(memberSearchExecutor.submit(any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(0).get()));
+        when(memberJpaRepository.search(any())).thenReturn(List.of(new MemberTeamDto(1L, "member1", 10, 1L, "teamA")));
+
+        MvcResult started = mockMvc.perform(get("/v1/members"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].username").value("member1"));
+    }
+
+    @Test
+    void firstPageCursorIsNotEncoded() {
+        assertThat(KeysetCursor.first(20).encode()).isNull();
+        assertThat(KeysetCursor.decode(KeysetCursor.first(20).next(10L).encode(), 20).getLastId()).isEqualTo(10L);
+    }
+}
@@ -0,0 +1,104 @@
+package study.querydsl.controller.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberJsonModuleTest {
+
+    ObjectMapper defaultMapper = new ObjectMapper();
+    ObjectMapper moduleMapper = new ObjectMapper().registerModule(new MemberJsonModule());
+
+    List<MemberTeamDto> dtos;
+    MemberTeamColumns columns;
+
+    @BeforeEach
+    void before() {
+        dtos = List.of(
+                new MemberTeamDto(1L, "member1", 10, 1L, "teamA"),
+                new MemberTeamDto(2L, "회원2\"\n", null, 2L, "teamB"),
+                new MemberTeamDto(3L, null, 30, null, null));
+        columns = new MemberTeamColumns(dtos.size());
+        for (MemberTeamDto dto : dtos) {
+            columns.add(dto.getMemberId(), dto.getUsername(),
+                    dto.getAge() == null ? 0 : dto.getAge(), dto.getAge() == null,
+                    dto.getTeamId() == null ? 0 : dto.getTeamId(), dto.getTeamId() == null,
+                    dto.getTeamName());
+        }
+    }
+
+    @Test
+    public void dtoAndList() throws Exception {
+        assertSameJson(dtos.get(1));
+        assertSameJson(dtos);
+    }
+
+    @Test
+    public void columnsAsList() throws Exception {
+        assertThat(moduleMapper.readTree(moduleMapper.writeValueAsString(columns)))
+                .isEqualTo(defaultMapper.readTree(defaultMapper.writeValueAsString(dtos)));
+    }
+
+    @Test
+    public void page() throws Exception {
+        assertSameJson(new PageImpl<>(dtos, PageRequest.of(1, 3, Sort.by("username")), 10));
+        assertSameJson(new PageImpl<>(dtos, PageRequest.of(0, 3), 3));
+        assertSameJson(new PageImpl<>(dtos, Pageable.unpaged(), 3));
+        assertSameJson(Page.empty());
+    }
+
+    @Test
+    public void binaryRoundTrip() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MemberColumnsCodec.write(columns, out);
+
+        MemberTeamColumns read = MemberColumnsCodec.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(read.toDtos()).isEqualTo(dtos);
+    }
+
+    @Test
+    public void binaryRejectsOversizedCounts() throws Exception {
+        ByteArrayOutputStream rows = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(rows);
+        data.writeInt(('M' << 24) | ('T' << 16) | ('C' << 8) | '1');
+        data.writeInt(Integer.MAX_VALUE);
+
+        assertThatThrownBy(() -> MemberColumnsCodec.read(new ByteArrayInputStream(rows.toByteArray())))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("rows");
+
+        // 1건짜리 스트림의 팀 이름 사전 크기를 row 수보다 크게 바꾼다.
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MemberColumnsCodec.write(MemberTeamColumns.of(dtos.subList(0, 1)), out);
+        byte[] bytes = out.toByteArray();
+        // magic, rows, memberId, age 비트맵, age, team 비트맵, teamId 다음
+        int dictionaryOffset = 4 + 4 + 8 + 1 + 4 + 1 + 8;
+        bytes[dictionaryOffset] = 0x7f;
+
+        assertThatThrownBy(() -> MemberColumnsCodec.read(new ByteArrayInputStream(bytes)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("team names");
+    }
+
+    private void assertSameJson(Object value) throws Exception {
+        assertThat(moduleMapper.readTree(moduleMapper.writeValueAsString(value)))
+                .isEqualTo(defaultMapper.readTree(defaultMapper.writeValueAsString(value)));
+    }
+}
@@ -0,0 +1,58 @@
+package study.querydsl.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("oltp")
+class JdbcProfileTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void oltpProfile() throws Exception {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        assertThat(hikari.getPoolName()).isEqualTo("oltp");
+        assertThat(hikari.getMaximumPoolSize()).isEqualTo(20);
+        assertThat(hikari.getConnectionTimeout()).isEqualTo(1000);
+        assertThat(hikari.getDataSourceProperties()).containsEntry("QUERY_CACHE_SIZE", "64");
+
+        assertThat(entityManagerFactory.getProperties())
+                .containsEntry("hibernate.jdbc.fetch_size", "100")
+                .containsEntry("hibernate.jdbc.batch_size", "50")
+                .containsEntry("hibernate.order_inserts", "true");
+    }
+
+    @Test
+    public void poolMetrics() {
+        jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", "oltp").timer();
+        assertThat(acquire).isNotNull();
+        assertThat(acquire.count()).isPositive();
+        assertThat(meterRegistry.find("hikaricp.connections.active").tag("pool", "oltp").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.idle").tag("pool", "oltp").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.timeout").tag("pool", "oltp").counter()).isNotNull();
+    }
+}
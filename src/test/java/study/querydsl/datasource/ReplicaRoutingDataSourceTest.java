@@ -0,0 +1,79 @@
+package study.querydsl.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    ReplicaRoutingDataSource routingDataSource;
+    ReplicaSelector replicaSelector;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void before() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", h2("replica0"));
+        replicas.put("replica-1", h2("replica1"));
+
+        // 두 번째 replica 만 지연이 큰 것처럼 보이게 한다.
+        replicaSelector = new ReplicaSelector(replicas, Duration.ofSeconds(5),
+                "select case when database() = 'REPLICA1' then 60 else 0 end");
+        routingDataSource = new ReplicaRoutingDataSource(h2("primary"), replicas, replicaSelector);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void after() throws Exception {
+        routingDataSource.close();
+    }
+
+    @Test
+    public void readOnlyTransactionGoesToReplica() {
+        assertThat(currentDatabase(true)).startsWith("REPLICA");
+        assertThat(currentDatabase(false)).isEqualTo("PRIMARY");
+        assertThat(jdbcTemplate.queryForObject("select database()", String.class)).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    public void laggingReplicaIsSkipped() {
+        replicaSelector.checkHealth();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(currentDatabase(true)).isEqualTo("REPLICA0");
+        }
+    }
+
+    @Test
+    public void fallbackToPrimaryWhenNoReplicaIsHealthy() {
+        ReplicaSelector broken = new ReplicaSelector(Map.of("replica-0", h2("replica0")), Duration.ofSeconds(5), "select 60");
+        broken.checkHealth();
+
+        assertThat(broken.select()).isEmpty();
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select database()", String.class));
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,74 @@
+package study.querydsl.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberRepository;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * primary / replica 주소를 따로 주지 않으면 spring.datasource.url 을 그대로 쓴다.
+ * 둘 다 같은 메모리 DB 이므로 어느 풀에서 커넥션을 얻었는지(hikaricp.connections.acquire)로 라우팅을 확인한다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+        "member.datasource.routing.enabled=true",
+        "member.datasource.routing.health-check-interval=1h"
+})
+class RoutingDataSourceConfigTest {
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void nodesDefaultToSpringDatasourceUrl() throws Exception {
+        DataSource primary = replicaRoutingDataSource.getResolvedDataSources().get(ReplicaRoutingDataSource.PRIMARY);
+        DataSource replica = replicaRoutingDataSource.getResolvedDataSources().get("replica-0");
+
+        assertThat(primary.unwrap(HikariDataSource.class).getJdbcUrl()).isEqualTo("jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1");
+        assertThat(replica.unwrap(HikariDataSource.class).getJdbcUrl()).isEqualTo("jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    public void readOnlyRepositoryCallGoesToReplica() {
+        long primaryBefore = acquired(ReplicaRoutingDataSource.PRIMARY);
+        long replicaBefore = acquired("replica-0");
+
+        // SimpleJpaRepository 조회 메서드는 @Transactional(readOnly = true)
+        memberRepository.count();
+
+        assertThat(acquired(ReplicaRoutingDataSource.PRIMARY)).isEqualTo(primaryBefore);
+        assertThat(acquired("replica-0")).isGreaterThan(replicaBefore);
+    }
+
+    @Test
+    public void writeGoesToPrimary() {
+        long primaryBefore = acquired(ReplicaRoutingDataSource.PRIMARY);
+
+        memberRepository.save(new Member("member1", 10));
+
+        assertThat(acquired(ReplicaRoutingDataSource.PRIMARY)).isGreaterThan(primaryBefore);
+    }
+
+    private long acquired(String pool) {
+        return meterRegistry.get("hikaricp.connections.acquire").tag("pool", pool).timer().count();
+    }
+}
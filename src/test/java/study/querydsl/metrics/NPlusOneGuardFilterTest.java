@@ -0,0 +1,93 @@
+package study.querydsl.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import study.querydsl.jdbc.SqlStatementRecorder;
+
+import javax.servlet.FilterChain;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NPlusOneGuardFilterTest {
+
+    SqlStatementRecorder statementRecorder;
+    SimpleMeterRegistry meterRegistry;
+    NPlusOneGuardFilter filter;
+
+    @BeforeEach
+    void before() {
+        NPlusOneProperties properties = new NPlusOneProperties();
+        properties.setSampleRate(1.0);
+        properties.setThreshold(3);
+        properties.setFailOnDetection(true);
+
+        statementRecorder = new SqlStatementRecorder();
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new NPlusOneGuardFilter(new NPlusOneDetector(statementRecorder, properties, meterRegistry), properties);
+    }
+
+    @Test
+    void failsBeforeResponseIsCommitted() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("GET", "/v1/members"), response, lazyLoading(false)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("N+1");
+        assertThat(detectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void onlyReportsOnceResponseIsCommitted() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/members"), response, lazyLoading(true));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(detectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void asyncRequestIsVerifiedOnComplete() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/members");
+        request.setAsyncSupported(true);
+        AtomicReference<Callable<Void>> worker = new AtomicReference<>();
+
+        // MemberSearchExecutor 처럼 요청 스레드에서는 작업만 넘기고 바로 반환
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.startAsync();
+            worker.set(statementRecorder.wrap(() -> {
+                lazyLoading(false).doFilter(req, res);
+                return null;
+            }));
+        });
+        assertThat(detectedCount()).isZero();
+
+        worker.get().call();
+        request.getAsyncContext().complete();
+
+        assertThat(detectedCount()).isEqualTo(1);
+    }
+
+    // 같은 select 를 반복 실행하고, commit 이면 응답 본문을 내보낸다.
+    private FilterChain lazyLoading(boolean commit) {
+        return (request, response) -> {
+            for (int i = 0; i < 3; i++) {
+                statementRecorder.onStatement("select team0_.id from team team0_ where team0_.id=?");
+            }
+            if (commit) {
+                response.getWriter().write("[]");
+                response.flushBuffer();
+            }
+        };
+    }
+
+    private double detectedCount() {
+        return meterRegistry.counter("member.n-plus-one.detected").count();
+    }
+}
@@ -0,0 +1,85 @@
+package study.querydsl.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.JpaTestData;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+@SpringBootTest
+class RepositoryMetricsAspectTest {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @BeforeEach
+    void setUp() {
+        new JpaTestData(em).create();
+        em.flush();
+    }
+
+    @Test
+    void recordsLatencyRowsAndStatementsPerShape() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        memberJpaRepository.search(condition);
+
+        Timer timer = meterRegistry.find("member.repository.query")
+                .tags("repository", "MemberJpaRepository", "method", "search", "shape", "teamName")
+                .timer();
+        DistributionSummary rows = meterRegistry.find("member.repository.rows")
+                .tags("repository", "MemberJpaRepository", "method", "search", "shape", "teamName")
+                .summary();
+        DistributionSummary statements = meterRegistry.find("member.repository.statements")
+                .tags("repository", "MemberJpaRepository", "method", "search", "shape", "teamName")
+                .summary();
+
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isGreaterThanOrEqualTo(1);
+        assertThat(rows.max()).isEqualTo(2);
+        assertThat(statements.max()).isEqualTo(1);
+    }
+
+    @Test
+    void recordsSkippedCountQuery() {
+        double skippedBefore = countResult("skipped");
+
+        // 첫 페이지이면서 컨텐츠가 페이지 사이즈보다 작으면 count 쿼리 생략
+        memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(0, 100));
+
+        assertThat(countResult("skipped")).isEqualTo(skippedBefore + 1);
+    }
+
+    private double countResult(String result) {
+        return meterRegistry.find("member.repository.count")
+                .tag("result", result)
+                .counters()
+                .stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+}
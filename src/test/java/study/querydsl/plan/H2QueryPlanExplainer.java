@@ -0,0 +1,55 @@
+package study.querydsl.plan;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * H2 는 EXPLAIN 결과에 테이블마다 사용한 인덱스를 주석으로 남긴다.
+ * 예) "PUBLIC.IDX_MEMBER_USERNAME: USERNAME = ?1", 풀 스캔이면 "PUBLIC.MEMBER.tableScan"
+ * 파라미터(?)는 쿼리 실행 때 바인딩된 값을 그대로 바인딩한다.
+ */
+public class H2QueryPlanExplainer implements QueryPlanExplainer {
+
+    @Override
+    public boolean supports(String databaseProductName) {
+        return "H2".equals(databaseProductName);
+    }
+
+    @Override
+    public String directory() {
+        return "h2";
+    }
+
+    @Override
+    public String explain(Connection connection, String sql, List<Object> parameters) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            return plan.toString().trim();
+        }
+    }
+
+    @Override
+    public int countFullScans(String plan) {
+        return occurrences(plan, ".tableScan");
+    }
+
+    static int occurrences(String text, String token) {
+        int count = 0;
+        for (int from = text.indexOf(token); from >= 0; from = text.indexOf(token, from + token.length())) {
+            count++;
+        }
+        return count;
+    }
+}
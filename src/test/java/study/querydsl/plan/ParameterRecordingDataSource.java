@@ -0,0 +1,123 @@
+package study.querydsl.plan;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 실행된 PreparedStatement 의 SQL 과 바인딩된 파라미터 값을 기록하는 DataSource
+ * StatementInspector 는 SQL 만 넘겨주므로, 실행 계획을 실제 값으로 보기 위해 JDBC 단계에서 값을 모은다.
+ * start() 로 시작한 스레드에서 실행된 것만 기록한다.
+ */
+public class ParameterRecordingDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<List<Execution>> RECORDING = new ThreadLocal<>();
+
+    public ParameterRecordingDataSource(DataSource target) {
+        super(target);
+    }
+
+    public static Recording start() {
+        List<Execution> executions = new ArrayList<>();
+        RECORDING.set(executions);
+        return new Recording(executions);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private static Connection connection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (method.getName().equals("prepareStatement") && args != null && args[0] instanceof String) {
+                        return statement((PreparedStatement) result, (String) args[0]);
+                    }
+                    return result;
+                });
+    }
+
+    private static PreparedStatement statement(PreparedStatement target, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                List<Execution> executions = RECORDING.get();
+                if (executions != null) {
+                    executions.add(new Execution(sql, new ArrayList<>(parameters.values())));
+                }
+            }
+            return invoke(target, method, args);
+        };
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    public static class Recording implements AutoCloseable {
+
+        private final List<Execution> executions;
+
+        private Recording(List<Execution> executions) {
+            this.executions = executions;
+        }
+
+        public List<Execution> getExecutions() {
+            return executions;
+        }
+
+        @Override
+        public void close() {
+            RECORDING.remove();
+        }
+    }
+
+    public static class Execution {
+
+        private final String sql;
+        // 1번 파라미터부터 순서대로
+        private final List<Object> parameters;
+
+        Execution(String sql, List<Object> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public List<Object> getParameters() {
+            return parameters;
+        }
+    }
+}
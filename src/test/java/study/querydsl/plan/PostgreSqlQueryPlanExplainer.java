@@ -0,0 +1,45 @@
+package study.querydsl.plan;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 파라미터는 실행 때 바인딩된 값으로 바인딩해서 그 값에 대한 계획을 본다.
+ * 비용은 데이터에 따라 바뀌므로 COSTS OFF 로 노드 구조만 비교한다.
+ */
+public class PostgreSqlQueryPlanExplainer implements QueryPlanExplainer {
+
+    @Override
+    public boolean supports(String databaseProductName) {
+        return "PostgreSQL".equals(databaseProductName);
+    }
+
+    @Override
+    public String directory() {
+        return "postgresql";
+    }
+
+    @Override
+    public String explain(Connection connection, String sql, List<Object> parameters) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = connection.prepareStatement("explain (costs off) " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString().trim();
+    }
+
+    @Override
+    public int countFullScans(String plan) {
+        return H2QueryPlanExplainer.occurrences(plan, "Seq Scan");
+    }
+}
@@ -0,0 +1,23 @@
+package study.querydsl.plan;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * DB별 실행 계획 조회 방법
+ * 새 DB를 지원하려면 구현을 추가하고 QueryPlanHarness.EXPLAINERS 에 등록한다.
+ */
+public interface QueryPlanExplainer {
+
+    boolean supports(String databaseProductName);
+
+    // 골든 파일 디렉터리 이름 (src/test/resources/query-plans/{directory})
+    String directory();
+
+    // parameters 는 쿼리가 실제로 실행될 때 바인딩된 값 (1번부터 순서대로)
+    String explain(Connection connection, String sql, List<Object> parameters) throws SQLException;
+
+    // 계획에서 인덱스를 쓰지 않고 테이블 전체를 읽는 부분의 수
+    int countFullScans(String plan);
+}
@@ -0,0 +1,111 @@
+package study.querydsl.plan;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 쿼리를 실행해서 나간 select SQL 의 실행 계획을 골든 파일(src/test/resources/query-plans/{db}/{name}.plan)과 비교한다.
+ * - SQL 과 함께 실제로 바인딩된 파라미터 값을 ParameterRecordingDataSource 로 모아서 같은 값으로 EXPLAIN 한다.
+ * - 골든 파일이 아직 없으면 건너뛴다. (기록 전까지는 비교할 대상이 없다.)
+ * - 풀 스캔이 늘어나면 "scan regression", 그 밖의 차이는 "plan changed" 로 실패한다.
+ * - 새 쿼리이거나 의도한 변경이면 -Dquery-plan.update=true 로 실행해서 골든 파일을 기록하고 diff 를 리뷰한다.
+ */
+public class QueryPlanHarness {
+
+    private static final List<QueryPlanExplainer> EXPLAINERS = List.of(
+            new H2QueryPlanExplainer(),
+            new PostgreSqlQueryPlanExplainer());
+
+    private static final Path GOLDEN_ROOT = Paths.get("src", "test", "resources", "query-plans");
+    private static final String SEPARATOR = "\n\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final QueryPlanExplainer explainer;
+
+    public QueryPlanHarness(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        this.explainer = EXPLAINERS.stream()
+                .filter(candidate -> candidate.supports(product))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("no query plan explainer for " + product));
+    }
+
+    public void verify(String name, Runnable query) {
+        List<ParameterRecordingDataSource.Execution> selects = capture(query);
+        assertThat(selects).as("select statements of %s", name).isNotEmpty();
+
+        List<String> plans = new ArrayList<>();
+        for (ParameterRecordingDataSource.Execution select : selects) {
+            plans.add(jdbcTemplate.execute((ConnectionCallback<String>) con ->
+                    explainer.explain(con, select.getSql(), select.getParameters())));
+        }
+        String actual = String.join(SEPARATOR, plans) + "\n";
+
+        Path golden = GOLDEN_ROOT.resolve(explainer.directory()).resolve(name + ".plan");
+        if (Boolean.getBoolean("query-plan.update")) {
+            write(golden, actual);
+            return;
+        }
+        assumeTrue(Files.exists(golden), () -> "missing golden plan " + golden + ", run with -Dquery-plan.update=true to record it");
+
+        String expected = read(golden);
+        if (expected.equals(actual)) {
+            return;
+        }
+
+        int expectedScans = explainer.countFullScans(expected);
+        int actualScans = explainer.countFullScans(actual);
+        if (actualScans > expectedScans) {
+            fail("scan regression in %s: full scans %d -> %d%n--- expected%n%s%n--- actual%n%s",
+                    name, expectedScans, actualScans, expected, actual);
+        }
+        fail("plan changed in %s (re-record with -Dquery-plan.update=true if intended)%n--- expected%n%s%n--- actual%n%s",
+                name, expected, actual);
+    }
+
+    private static List<ParameterRecordingDataSource.Execution> capture(Runnable query) {
+        List<ParameterRecordingDataSource.Execution> selects = new ArrayList<>();
+        try (ParameterRecordingDataSource.Recording recording = ParameterRecordingDataSource.start()) {
+            query.run();
+            for (ParameterRecordingDataSource.Execution execution : recording.getExecutions()) {
+                if (execution.getSql().trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+                    selects.add(execution);
+                }
+            }
+        }
+        return selects;
+    }
+
+    private static String read(Path path) {
+        try {
+            return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(Path path, String plan) {
+        try {
+            Files.createDirectories(path.getParent());
+            Files.write(path, plan.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package study.querydsl.plan;
+
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.QMember;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchShape;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 실행 계획 골든 파일 테스트, 사용법은 QueryPlanHarness 참고
+ * 행이 몇 개 없으면 인덱스가 있어도 풀 스캔을 고를 수 있으므로 팀 TEAM_COUNT 개, 회원 MEMBER_COUNT 명을 넣고 계획을 본다.
+ */
+@SpringBootTest
+@Transactional
+class QueryPlanRegressionTest {
+
+    static final int TEAM_COUNT = 20;
+    static final int MEMBER_COUNT = 10_000;
+    // 다른 테스트가 시퀀스로 만드는 id 와 겹치지 않게
+    static final long FIRST_ID = 1_000_000;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    QueryPlanHarness harness;
+
+    @BeforeEach
+    void before() {
+        List<Object[]> teams = new ArrayList<>(TEAM_COUNT);
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            teams.add(new Object[]{FIRST_ID + i, "team" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into team (id, name) values (?, ?)", teams);
+
+        List<Object[]> members = new ArrayList<>(MEMBER_COUNT);
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            members.add(new Object[]{FIRST_ID + i, i % 60, "member" + i, FIRST_ID + i % TEAM_COUNT});
+        }
+        jdbcTemplate.batchUpdate("insert into member (id, age, username, team_id) values (?, ?, ?, ?)", members);
+
+        harness = new QueryPlanHarness(jdbcTemplate);
+    }
+
+    @Test
+    void searchShapes() {
+        for (MemberSearchShape shape : MemberSearchShape.all()) {
+            MemberSearchCondition condition = conditionOf(shape);
+            harness.verify("search-" + shape.getName(), () -> memberRepository.search(condition));
+        }
+    }
+
+    @Test
+    void groupByTeamName() {
+        harness.verify("group-by-team-name", () -> queryFactory
+                .select(team.name, member.age.avg())
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.name)
+                .fetch());
+    }
+
+    @Test
+    void joinOnTeamName() {
+        harness.verify("join-team-name", () -> queryFactory
+                .selectFrom(member)
+                .join(member.team, team)
+                .where(team.name.eq("team1"))
+                .fetch());
+    }
+
+    @Test
+    void leftJoinOnFiltering() {
+        harness.verify("left-join-on-filtering", () -> queryFactory
+                .select(member, team)
+                .from(member)
+                .leftJoin(member.team, team)
+                .on(team.name.eq("team1"))
+                .fetch());
+    }
+
+    @Test
+    void subQueries() {
+        QMember memberSub = new QMember("memberSub");
+
+        harness.verify("sub-query-max-age", () -> queryFactory
+                .selectFrom(member)
+                .where(member.age.eq(JPAExpressions.select(memberSub.age.max()).from(memberSub)))
+                .fetch());
+        harness.verify("sub-query-in", () -> queryFactory
+                .selectFrom(member)
+                .where(member.age.in(JPAExpressions.select(memberSub.age).from(memberSub).where(memberSub.age.goe(30))))
+                .fetch());
+    }
+
+    @Test
+    void caseExpression() {
+        harness.verify("case-age-range", () -> queryFactory
+                .select(new CaseBuilder()
+                        .when(member.age.between(0, 20)).then("0~20")
+                        .when(member.age.between(21, 30)).then("21~30")
+                        .otherwise("etc"))
+                .from(member)
+                .fetch());
+    }
+
+    private static MemberSearchCondition conditionOf(MemberSearchShape shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if (shape.has(MemberSearchShape.USERNAME)) {
+            condition.setUsername("member1");
+        }
+        if (shape.has(MemberSearchShape.TEAM_NAME)) {
+            condition.setTeamName("team1");
+        }
+        if (shape.has(MemberSearchShape.AGE_GOE)) {
+            condition.setAgeGoe(10);
+        }
+        if (shape.has(MemberSearchShape.AGE_LOE)) {
+            condition.setAgeLoe(30);
+        }
+        return condition;
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        // 실행된 SQL 의 파라미터 값을 모으도록 DataSource 를 감싼다.
+        @Bean
+        static BeanPostProcessor parameterRecordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource && !(bean instanceof ParameterRecordingDataSource)) {
+                        return new ParameterRecordingDataSource((DataSource) bean);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
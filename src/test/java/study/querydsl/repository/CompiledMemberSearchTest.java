@@ -0,0 +1,81 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.JpaTestData;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+@SpringBootTest
+class CompiledMemberSearchTest {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Autowired
+    private CompiledMemberSearch compiledSearch;
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    void setUp() {
+        new JpaTestData(em).create();
+    }
+
+    @Test
+    void everyShapeMatchesQuerydslSearch() {
+        for (MemberSearchShape shape : MemberSearchShape.all()) {
+            MemberSearchCondition condition = conditionOf(shape);
+
+            List<MemberTeamDto> compiled = compiledSearch.search(condition);
+            List<MemberTeamDto> querydsl = memberJpaRepository.search(condition);
+
+            assertThat(compiled)
+                    .as(shape.getName())
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .containsExactlyInAnyOrderElementsOf(querydsl);
+            assertThat(compiledSearch.count(condition))
+                    .as(shape.getName())
+                    .isEqualTo(querydsl.size());
+        }
+    }
+
+    @Test
+    void searchWithPageable() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+
+        List<MemberTeamDto> result = compiledSearch.search(condition, PageRequest.of(0, 2));
+
+        assertThat(result).hasSize(2);
+    }
+
+    private MemberSearchCondition conditionOf(MemberSearchShape shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if (shape.has(MemberSearchShape.USERNAME)) {
+            condition.setUsername("memberA");
+        }
+        if (shape.has(MemberSearchShape.TEAM_NAME)) {
+            condition.setTeamName("teamA");
+        }
+        if (shape.has(MemberSearchShape.AGE_GOE)) {
+            condition.setAgeGoe(10);
+        }
+        if (shape.has(MemberSearchShape.AGE_LOE)) {
+            condition.setAgeLoe(20);
+        }
+        return condition;
+    }
+}
@@ -0,0 +1,77 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.jdbc.SqlStatementRecorder;
+import study.querydsl.metrics.NPlusOneDetector;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+@SpringBootTest(properties = "member.n-plus-one.threshold=3")
+class MemberFetchPlanTest {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private NPlusOneDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            em.persist(new Member("member" + i, 10 + i, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void lazyPlanIsDetectedAsNPlusOne() {
+        try (SqlStatementRecorder.Recording recording = detector.start()) {
+            readTeamNames(memberRepository.findMembers(new MemberSearchCondition(), MemberFetchPlan.LAZY));
+
+            assertThat(detector.repeatedSelects(recording)).hasSize(1);
+        }
+    }
+
+    @Test
+    void joinPlanLoadsTeamsInOneQuery() {
+        try (SqlStatementRecorder.Recording recording = detector.start()) {
+            readTeamNames(memberRepository.findMembers(new MemberSearchCondition(), MemberFetchPlan.JOIN));
+
+            assertThat(recording.getCount()).isEqualTo(1);
+            assertThat(detector.repeatedSelects(recording)).isEmpty();
+        }
+    }
+
+    @Test
+    void batchPlanLoadsTeamsInTwoQueries() {
+        try (SqlStatementRecorder.Recording recording = detector.start()) {
+            readTeamNames(memberRepository.findMembers(new MemberSearchCondition(), MemberFetchPlan.BATCH));
+
+            assertThat(recording.getCount()).isEqualTo(2);
+            assertThat(detector.repeatedSelects(recording)).isEmpty();
+        }
+    }
+
+    private void readTeamNames(List<Member> members) {
+        assertThat(members).hasSize(5);
+        members.forEach(member -> assertThat(member.getTeam().getName()).startsWith("team"));
+    }
+}
@@ -12,6 +12,8 @@ import study.querydsl.entity.Team;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -92,4 +94,27 @@ class MemberJpaRepositoryTest {
         assertThat(memberTeamDto.getAge()).isLessThanOrEqualTo(40);
     }
 
+    @Test
+    void searchStream() {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("memberA", 10, teamA));
+        em.persist(new Member("memberB", 20, teamA));
+        em.persist(new Member("memberC", 30, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        // when
+        List<MemberTeamDto> result;
+        try (Stream<MemberTeamDto> stream = memberJpaRepository.searchStream(condition)) {
+            result = stream.collect(Collectors.toList());
+        }
+
+        // then
+        assertThat(result)
+                .extracting("username")
+                .containsExactlyInAnyOrder("memberB", "memberC");
+    }
 }
@@ -0,0 +1,129 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.jdbc.SqlStatementRecorder;
+import study.querydsl.repository.count.WindowFunctionSupport;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * searchPageSimple 의 count(*) over() 경로와 count 쿼리를 따로 실행하는 경로
+ * 실행된 SQL 수로 어느 경로를 탔는지 확인한다.
+ */
+@Transactional
+@SpringBootTest
+class MemberRepositoryPagingTest {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private SqlStatementRecorder statementRecorder;
+
+    @SpyBean
+    private WindowFunctionSupport windowFunctionSupport;
+
+    @BeforeEach
+    void initData() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("memberA", 10, teamA));
+        em.persist(new Member("memberB", 20, teamA));
+        em.persist(new Member("memberC", 30, teamB));
+        em.persist(new Member("memberD", 40, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void windowedCountInSingleQuery() {
+        doReturn(true).when(windowFunctionSupport).isSupported();
+
+        Page<MemberTeamDto> result = recorded(1, () ->
+                memberRepository.searchPageSimple(new MemberSearchCondition(), PageRequest.of(1, 3)));
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void windowedCountWithFilter() {
+        doReturn(true).when(windowFunctionSupport).isSupported();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        Page<MemberTeamDto> result = recorded(1, () ->
+                memberRepository.searchPageSimple(condition, PageRequest.of(0, 1)));
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void pagePastLastStillReportsTotal() {
+        doReturn(true).when(windowFunctionSupport).isSupported();
+
+        // 컨텐츠가 없으면 count(*) over() 값도 없으므로 count 쿼리를 한 번 더 실행
+        Page<MemberTeamDto> result = recorded(2, () ->
+                memberRepository.searchPageSimple(new MemberSearchCondition(), PageRequest.of(5, 3)));
+
+        assertThat(result.getContent()).isEmpty();
+        assertThat(result.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void emptyFirstPageSkipsCount() {
+        doReturn(true).when(windowFunctionSupport).isSupported();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("noSuchTeam");
+
+        Page<MemberTeamDto> result = recorded(1, () ->
+                memberRepository.searchPageSimple(condition, PageRequest.of(0, 3)));
+
+        assertThat(result.getContent()).isEmpty();
+        assertThat(result.getTotalElements()).isZero();
+    }
+
+    @Test
+    void fallsBackToSeparateCountQuery() {
+        doReturn(false).when(windowFunctionSupport).isSupported();
+
+        Page<MemberTeamDto> result = recorded(2, () ->
+                memberRepository.searchPageSimple(new MemberSearchCondition(), PageRequest.of(1, 3)));
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getTotalElements()).isEqualTo(4);
+    }
+
+    private <T> T recorded(int expectedStatements, Supplier<T> call) {
+        try (SqlStatementRecorder.Recording recording = statementRecorder.start(10)) {
+            T result = call.get();
+            assertThat(recording.getCount())
+                    .as("statements %s", recording.getStatements())
+                    .isEqualTo(expectedStatements);
+            return result;
+        }
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.KeysetCursor;
+import study.querydsl.dto.KeysetSlice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
@@ -74,4 +76,39 @@ class MemberRepositoryTest {
         assertThat(result.getTotalElements()).isEqualTo(4);
         assertThat(result.getTotalPages()).isEqualTo(2);
     }
+
+    @Test
+    void searchPageComplexWithTeamName() {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        PageRequest pageRequest = PageRequest.of(0, 1);
+
+        // when
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, pageRequest);
+
+        // then
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void searchSlice() {
+        // given
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // when
+        KeysetSlice<MemberTeamDto> first = memberRepository.searchSlice(condition, KeysetCursor.first(3));
+        KeysetSlice<MemberTeamDto> second = memberRepository.searchSlice(
+                condition, KeysetCursor.decode(first.getNextCursor(), 3));
+
+        // then
+        assertThat(first.getContent()).hasSize(3);
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(second.getContent())
+                .extracting("username")
+                .containsExactly("memberD");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
 }
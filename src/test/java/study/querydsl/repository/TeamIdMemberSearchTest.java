@@ -0,0 +1,94 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.CommittedDataTest;
+import study.querydsl.dto.KeysetCursor;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.jdbc.SqlStatementRecorder;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 팀 이름 조건을 캐시된 팀 id 로 거른 결과가 team 조인으로 거른 결과와 같은지 확인한다.
+ * TeamCache 는 쓰기 트랜잭션 안에서 쓰지 않으므로, 같은 조회를 쓰기 트랜잭션 안(조인)과 밖(조인 없음)에서 비교한다.
+ */
+@SpringBootTest
+class TeamIdMemberSearchTest extends CommittedDataTest {
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private SqlStatementRecorder statementRecorder;
+
+    @BeforeEach
+    void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("joinTeamA");
+            // 팀 이름은 유일하지 않다.
+            Team otherTeamA = new Team("joinTeamA");
+            Team teamB = new Team("joinTeamB");
+            em.persist(teamA);
+            em.persist(otherTeamA);
+            em.persist(teamB);
+            for (int i = 0; i < 10; i++) {
+                Team team = i % 3 == 0 ? teamA : i % 3 == 1 ? otherTeamA : teamB;
+                em.persist(new Member("joinMember" + i, 10 + i, team));
+            }
+            em.persist(new Member("noTeamMember", 15));
+        });
+    }
+
+    @Test
+    void teamNameFilterMatchesJoin() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("joinTeamA");
+        condition.setAgeGoe(12);
+
+        assertSameWithoutJoin(() -> memberRepository.search(condition));
+        assertSameWithoutJoin(() -> pageContent(memberRepository.searchPageComplex(condition, PageRequest.of(0, 20))));
+        assertSameWithoutJoin(() -> memberRepository.searchSlice(condition, KeysetCursor.first(3)).getContent());
+        assertSameWithoutJoin(() -> memberIds(memberRepository.findMembers(condition, MemberFetchPlan.LAZY)));
+    }
+
+    @Test
+    void unknownTeamNameMatchesJoin() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("noSuchTeam");
+
+        assertSameWithoutJoin(() -> memberRepository.search(condition));
+        assertSameWithoutJoin(() -> memberIds(memberRepository.findMembers(condition, MemberFetchPlan.BATCH)));
+    }
+
+    private <T> void assertSameWithoutJoin(Supplier<List<T>> query) {
+        List<T> joined = transactionTemplate.execute(status -> query.get());
+
+        List<T> withoutJoin;
+        try (SqlStatementRecorder.Recording recording = statementRecorder.start(20)) {
+            withoutJoin = query.get();
+            assertThat(recording.getStatements()).noneMatch(sql -> sql.toLowerCase().contains(" join "));
+        }
+
+        assertThat(withoutJoin).containsExactlyElementsOf(joined);
+    }
+
+    private static List<Object> pageContent(Page<MemberTeamDto> page) {
+        return List.of(page.getTotalElements(), page.getContent().stream().map(MemberTeamDto::getMemberId).sorted().collect(toList()));
+    }
+
+    private static List<Long> memberIds(List<Member> members) {
+        return members.stream().map(Member::getId).collect(toList());
+    }
+}
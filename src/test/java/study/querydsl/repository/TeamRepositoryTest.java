@@ -0,0 +1,54 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.jdbc.SqlStatementRecorder;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+@SpringBootTest
+class TeamRepositoryTest {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private SqlStatementRecorder statementRecorder;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            em.persist(new Member("member" + i + "-1", 10, team));
+            em.persist(new Member("member" + i + "-2", 20, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void loadMembers() {
+        List<Team> teams = teamRepository.findAll();
+
+        try (SqlStatementRecorder.Recording recording = statementRecorder.start(10)) {
+            teamRepository.loadMembers(teams);
+            teams.forEach(team -> assertThat(team.getMembers()).hasSize(2));
+
+            assertThat(recording.getCount()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package study.querydsl.repository.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.changefeed.ChangeBatch;
+import study.querydsl.changefeed.ChangeEvent;
+import study.querydsl.config.MemberSearchProperties;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberSearchCacheTest {
+
+    private MemberSearchCache searchCache;
+    private AtomicInteger loadCount;
+
+    @BeforeEach
+    void setUp() {
+        MemberSearchProperties properties = new MemberSearchProperties();
+        properties.getCache().setEnabled(true);
+
+        searchCache = new MemberSearchCache(properties);
+        loadCount = new AtomicInteger();
+    }
+
+    @Test
+    void normalizedConditionHitsSameEntry() {
+        MemberSearchCondition blankUsername = new MemberSearchCondition();
+        blankUsername.setUsername(" ");
+        blankUsername.setTeamName("teamA");
+
+        MemberSearchCondition teamOnly = new MemberSearchCondition();
+        teamOnly.setTeamName("teamA");
+
+        searchCache.get("search", blankUsername, Pageable.unpaged(), loadCount::incrementAndGet);
+        searchCache.get("search", teamOnly, Pageable.unpaged(), loadCount::incrementAndGet);
+
+        assertThat(loadCount).hasValue(1);
+    }
+
+    @Test
+    void pageableIsPartOfKey() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        searchCache.get("searchPageComplex", condition, PageRequest.of(0, 10), loadCount::incrementAndGet);
+        searchCache.get("searchPageComplex", condition, PageRequest.of(1, 10), loadCount::incrementAndGet);
+
+        assertThat(loadCount).hasValue(2);
+    }
+
+    @Test
+    void unknownChangeInvalidatesAll() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        searchCache.get("search", condition, Pageable.unpaged(), loadCount::incrementAndGet);
+
+        searchCache.onChanges(batch(ChangeEvent.unknown(ChangeEvent.Entity.MEMBER, ChangeEvent.Operation.UPDATE)));
+        searchCache.get("search", condition, Pageable.unpaged(), loadCount::incrementAndGet);
+
+        assertThat(loadCount).hasValue(2);
+    }
+
+    @Test
+    void onlyAffectedEntriesAreInvalidated() {
+        MemberSearchCondition teamA = new MemberSearchCondition();
+        teamA.setTeamName("teamA");
+        MemberSearchCondition teamB = new MemberSearchCondition();
+        teamB.setTeamName("teamB");
+
+        searchCache.get("search", teamA, Pageable.unpaged(), () -> List.of(new MemberTeamDto(1L, "member1", 10, 1L, "teamA")));
+        searchCache.get("search", teamB, Pageable.unpaged(), () -> List.of(new MemberTeamDto(2L, "member2", 20, 2L, "teamB")));
+
+        // teamA 의 member1 나이만 변경
+        searchCache.onChanges(batch(ChangeEvent.member(ChangeEvent.Operation.UPDATE, 1L,
+                new MemberTeamDto(1L, "member1", 10, 1L, "teamA"),
+                new MemberTeamDto(1L, "member1", 11, 1L, "teamA"))));
+
+        searchCache.get("search", teamA, Pageable.unpaged(), loadCount::incrementAndGet);
+        searchCache.get("search", teamB, Pageable.unpaged(), loadCount::incrementAndGet);
+
+        assertThat(loadCount).hasValue(1);
+    }
+
+    @Test
+    void teamRenameInvalidatesEntriesContainingTeam() {
+        MemberSearchCondition all = new MemberSearchCondition();
+        searchCache.get("search", all, Pageable.unpaged(), () -> List.of(new MemberTeamDto(1L, "member1", 10, 1L, "teamA")));
+
+        searchCache.onChanges(batch(ChangeEvent.team(ChangeEvent.Operation.UPDATE, 1L, "teamA", "teamC")));
+        searchCache.get("search", all, Pageable.unpaged(), loadCount::incrementAndGet);
+
+        assertThat(loadCount).hasValue(1);
+    }
+
+    @Test
+    void callerMutationDoesNotLeakIntoCache() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        List<MemberTeamDto> first = searchCache.get("search", condition, Pageable.unpaged(),
+                () -> new ArrayList<>(List.of(new MemberTeamDto(1L, "member1", 10, 1L, "teamA"))));
+
+        first.get(0).setUsername("changed");
+        first.clear();
+
+        List<MemberTeamDto> second = searchCache.get("search", condition, Pageable.unpaged(), List::<MemberTeamDto>of);
+        assertThat(second).extracting("username").containsExactly("member1");
+    }
+
+    @Test
+    void pageContentIsCopied() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageable = PageRequest.of(0, 10);
+        Page<MemberTeamDto> first = searchCache.get("searchPageComplex", condition, pageable,
+                () -> new PageImpl<>(List.of(new MemberTeamDto(1L, "member1", 10, 1L, "teamA")), pageable, 1));
+
+        first.getContent().get(0).setAge(99);
+
+        Page<MemberTeamDto> second = searchCache.get("searchPageComplex", condition, pageable, Page::<MemberTeamDto>empty);
+        assertThat(second.getContent()).extracting("age").containsExactly(10);
+        assertThat(second.getTotalElements()).isEqualTo(1);
+    }
+
+    private static ChangeBatch batch(ChangeEvent... events) {
+        return new ChangeBatch(1, List.of(events));
+    }
+}
@@ -0,0 +1,144 @@
+package study.querydsl.repository.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import study.querydsl.changefeed.ChangeBatch;
+import study.querydsl.changefeed.ChangeEvent;
+import study.querydsl.config.TeamCacheProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TeamCacheTest {
+
+    // 테스트용 team 테이블
+    private final Map<Long, String> teams = new HashMap<>();
+    private final List<Collection<Long>> nameLoads = new ArrayList<>();
+    private AtomicInteger idLoadCount;
+    private Runnable duringIdLoad;
+    private TeamCache teamCache;
+
+    @BeforeEach
+    void setUp() {
+        teams.clear();
+        teams.put(1L, "teamA");
+        teams.put(2L, "teamB");
+        teams.put(3L, "teamA");
+        nameLoads.clear();
+        idLoadCount = new AtomicInteger();
+        duringIdLoad = () -> {
+        };
+
+        teamCache = new TeamCache(new TeamCacheProperties(),
+                name -> {
+                    idLoadCount.incrementAndGet();
+                    List<Long> ids = new ArrayList<>();
+                    teams.forEach((id, teamName) -> {
+                        if (teamName.equals(name)) {
+                            ids.add(id);
+                        }
+                    });
+                    duringIdLoad.run();
+                    ids.sort(null);
+                    return ids;
+                },
+                ids -> {
+                    nameLoads.add(List.copyOf(ids));
+                    Map<Long, String> names = new HashMap<>();
+                    ids.forEach(id -> {
+                        if (teams.containsKey(id)) {
+                            names.put(id, teams.get(id));
+                        }
+                    });
+                    return names;
+                });
+    }
+
+    @Test
+    void duplicateNamesResolveToAllIds() {
+        assertThat(teamCache.idsByName("teamA")).containsExactly(1L, 3L);
+        assertThat(teamCache.idsByName("teamA")).containsExactly(1L, 3L);
+
+        assertThat(idLoadCount).hasValue(1);
+    }
+
+    @Test
+    void unknownNameIsCachedUntilTeamInserted() {
+        assertThat(teamCache.idsByName("teamC")).isEmpty();
+        assertThat(teamCache.idsByName("teamC")).isEmpty();
+        assertThat(idLoadCount).hasValue(1);
+
+        teams.put(4L, "teamC");
+        teamCache.onChanges(batch(ChangeEvent.team(ChangeEvent.Operation.INSERT, 4L, null, "teamC")));
+
+        assertThat(teamCache.idsByName("teamC")).containsExactly(4L);
+    }
+
+    @Test
+    void renameInvalidatesBothNames() {
+        teamCache.idsByName("teamB");
+        teamCache.idsByName("teamD");
+        assertThat(teamCache.namesByIds(List.of(2L))).containsEntry(2L, "teamB");
+
+        teams.put(2L, "teamD");
+        teamCache.onChanges(batch(ChangeEvent.team(ChangeEvent.Operation.UPDATE, 2L, "teamB", "teamD")));
+
+        assertThat(teamCache.idsByName("teamB")).isEmpty();
+        assertThat(teamCache.idsByName("teamD")).containsExactly(2L);
+        assertThat(teamCache.namesByIds(List.of(2L))).containsEntry(2L, "teamD");
+    }
+
+    @Test
+    void loadRacingWithChangeIsNotCached() {
+        // 조회 중에 팀 이름이 바뀌고 변경이 전달됨
+        duringIdLoad = () -> teamCache.onChanges(
+                batch(ChangeEvent.team(ChangeEvent.Operation.UPDATE, 2L, "teamB", "teamE")));
+        teamCache.idsByName("teamB");
+
+        duringIdLoad = () -> {
+        };
+        teamCache.idsByName("teamB");
+
+        assertThat(idLoadCount).hasValue(2);
+    }
+
+    @Test
+    void namesByIdsLoadsOnlyMissingIds() {
+        teamCache.namesByIds(List.of(1L));
+        Map<Long, String> names = teamCache.namesByIds(List.of(1L, 2L, 99L));
+
+        assertThat(names).containsEntry(1L, "teamA").containsEntry(2L, "teamB").doesNotContainKey(99L);
+        assertThat(nameLoads).hasSize(2);
+        assertThat(nameLoads.get(1)).containsExactlyInAnyOrder(2L, 99L);
+    }
+
+    @Test
+    void unknownTeamChangeInvalidatesAll() {
+        teamCache.idsByName("teamA");
+
+        teamCache.onChanges(batch(ChangeEvent.unknown(ChangeEvent.Entity.TEAM, ChangeEvent.Operation.UPDATE)));
+        teamCache.idsByName("teamA");
+
+        assertThat(idLoadCount).hasValue(2);
+    }
+
+    @Test
+    void memberChangeKeepsEntries() {
+        teamCache.idsByName("teamA");
+
+        teamCache.onChanges(batch(ChangeEvent.unknown(ChangeEvent.Entity.MEMBER, ChangeEvent.Operation.UPDATE)));
+        teamCache.idsByName("teamA");
+
+        assertThat(idLoadCount).hasValue(1);
+    }
+
+    private static ChangeBatch batch(ChangeEvent event) {
+        return new ChangeBatch(1, List.of(event));
+    }
+}
@@ -0,0 +1,214 @@
+package study.querydsl.repository.count;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import study.querydsl.config.MemberSearchProperties;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.jdbc.SqlStatementRecorder;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 전략별로 count 를 어느 EntityManager 에서 몇 번 실행하는지 확인한다.
+ */
+class MemberCountStrategyTest {
+
+    EntityManager transactionalEm;
+    EntityManager countEm;
+    Session countSession;
+    EntityManagerFactory entityManagerFactory;
+    MemberTableStatistics tableStatistics;
+    SqlStatementRecorder statementRecorder;
+    SimpleMeterRegistry meterRegistry;
+
+    // counter 가 호출될 때 받은 EntityManager
+    List<EntityManager> calls;
+    Function<EntityManager, Long> counter;
+
+    MemberCountStrategy strategy;
+
+    @BeforeEach
+    void before() {
+        transactionalEm = mock(EntityManager.class);
+        countEm = mock(EntityManager.class);
+        countSession = mock(Session.class);
+        when(countEm.unwrap(Session.class)).thenReturn(countSession);
+        entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.createEntityManager()).thenReturn(countEm);
+        tableStatistics = mock(MemberTableStatistics.class);
+        statementRecorder = new SqlStatementRecorder();
+        meterRegistry = new SimpleMeterRegistry();
+
+        calls = new ArrayList<>();
+        counter = em -> {
+            synchronized (calls) {
+                calls.add(em);
+            }
+            // Hibernate StatementInspector 대신 직접 기록
+            statementRecorder.onStatement("select count(member0_.member_id) from member member0_");
+            return 4L;
+        };
+    }
+
+    @AfterEach
+    void after() {
+        if (strategy != null) {
+            strategy.destroy();
+        }
+    }
+
+    @Test
+    void exactCountsEveryTimeInCallerTransaction() {
+        strategy = strategy(CountMode.EXACT);
+
+        assertThat(strategy.prepare(new MemberSearchCondition(), counter).getAsLong()).isEqualTo(4L);
+        assertThat(strategy.prepare(new MemberSearchCondition(), counter).getAsLong()).isEqualTo(4L);
+
+        assertThat(calls).containsExactly(transactionalEm, transactionalEm);
+    }
+
+    @Test
+    void cachedReusesCountForNormalizedCondition() {
+        strategy = strategy(CountMode.CACHED);
+        MemberSearchCondition blankUsername = new MemberSearchCondition();
+        blankUsername.setUsername(" ");
+
+        strategy.prepare(new MemberSearchCondition(), counter).getAsLong();
+        assertThat(strategy.prepare(blankUsername, counter).getAsLong()).isEqualTo(4L);
+
+        assertThat(calls).containsExactly(transactionalEm);
+    }
+
+    @Test
+    void estimatedUsesStatisticsOnlyWithoutFilter() {
+        strategy = strategy(CountMode.ESTIMATED);
+        when(tableStatistics.estimateRowCount()).thenReturn(OptionalLong.of(1_000L));
+        MemberSearchCondition filtered = new MemberSearchCondition();
+        filtered.setAgeGoe(20);
+
+        assertThat(strategy.prepare(new MemberSearchCondition(), counter).getAsLong()).isEqualTo(1_000L);
+        assertThat(strategy.prepare(filtered, counter).getAsLong()).isEqualTo(4L);
+
+        assertThat(calls).containsExactly(transactionalEm);
+    }
+
+    @Test
+    void estimatedFallsBackToExactWhenStatisticsMissing() {
+        strategy = strategy(CountMode.ESTIMATED);
+        when(tableStatistics.estimateRowCount()).thenReturn(OptionalLong.empty());
+
+        assertThat(strategy.prepare(new MemberSearchCondition(), counter).getAsLong()).isEqualTo(4L);
+        assertThat(calls).containsExactly(transactionalEm);
+    }
+
+    @Test
+    void asyncCountsOnSeparateEntityManagerAndRecordsStatement() {
+        strategy = strategy(CountMode.ASYNC);
+
+        try (SqlStatementRecorder.Recording recording = statementRecorder.start(10)) {
+            PendingCount count = strategy.prepare(new MemberSearchCondition(), counter);
+            assertThat(count.getAsLong()).isEqualTo(4L);
+            count.finish();
+
+            // count 스레드에서 실행된 SQL 도 호출한 쪽 구간에 남는다.
+            assertThat(recording.getCount()).isEqualTo(1);
+        }
+
+        assertThat(calls).containsExactly(countEm);
+        verify(countEm).close();
+    }
+
+    @Test
+    void asyncCountNotStartedIsCancelledWithoutQuery() throws Exception {
+        strategy = strategy(CountMode.ASYNC);
+        CountDownLatch release = new CountDownLatch(1);
+        // count 스레드(1개)를 점유
+        PendingCount busy = strategy.prepare(new MemberSearchCondition(), em -> await(release));
+
+        PendingCount queued = strategy.prepare(new MemberSearchCondition(), counter);
+        queued.finish();
+        release.countDown();
+        assertThat(busy.getAsLong()).isEqualTo(4L);
+        busy.finish();
+
+        assertThat(calls).isEmpty();
+        assertThat(meterRegistry.counter("member.repository.count", "mode", "async", "result", "skipped").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void asyncCountRunningIsCancelledOnJdbc() throws Exception {
+        strategy = strategy(CountMode.ASYNC);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        PendingCount count = strategy.prepare(new MemberSearchCondition(), em -> {
+            started.countDown();
+            return await(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        count.finish();
+        release.countDown();
+
+        verify(countSession).cancelQuery();
+        verify(countEm, timeout(5_000)).close();
+    }
+
+    @Test
+    void asyncCountFailureIsCountedAsFailed() {
+        strategy = strategy(CountMode.ASYNC);
+
+        PendingCount count = strategy.prepare(new MemberSearchCondition(), em -> {
+            throw new IllegalArgumentException("broken count");
+        });
+
+        assertThatThrownBy(count::getAsLong)
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("broken count");
+        count.fail();
+
+        assertThat(meterRegistry.counter("member.repository.count", "mode", "async", "result", "failed").count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.counter("member.repository.count", "mode", "async", "result", "skipped").count())
+                .isZero();
+    }
+
+    private static Long await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 4L;
+    }
+
+    private MemberCountStrategy strategy(CountMode mode) {
+        MemberSearchProperties properties = new MemberSearchProperties();
+        properties.getCount().setMode(mode);
+        properties.getCount().setAsyncPoolSize(1);
+
+        MemberCountStrategy strategy = new MemberCountStrategy(
+                properties, entityManagerFactory, tableStatistics, statementRecorder, meterRegistry);
+        ReflectionTestUtils.setField(strategy, "em", transactionalEm);
+        return strategy;
+    }
+}
@@ -0,0 +1,60 @@
+package study.querydsl.repository.count;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PendingCountTest {
+
+    private Counter executed;
+    private Counter skipped;
+    private Counter failed;
+    private AtomicBoolean cancelled;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        executed = registry.counter("executed");
+        skipped = registry.counter("skipped");
+        failed = registry.counter("failed");
+        cancelled = new AtomicBoolean();
+    }
+
+    @Test
+    void unusedCountIsCancelled() {
+        PendingCount count = new PendingCount(() -> 10L, () -> cancelled.set(true), executed, skipped, failed);
+
+        count.finish();
+
+        assertThat(cancelled).isTrue();
+        assertThat(skipped.count()).isEqualTo(1);
+        assertThat(executed.count()).isZero();
+    }
+
+    @Test
+    void usedCountIsNotCancelled() {
+        PendingCount count = new PendingCount(() -> 10L, () -> cancelled.set(true), executed, skipped, failed);
+
+        assertThat(count.getAsLong()).isEqualTo(10L);
+        count.finish();
+
+        assertThat(cancelled).isFalse();
+        assertThat(executed.count()).isEqualTo(1);
+    }
+
+    @Test
+    void failureIsNotCountedAsSkipped() {
+        PendingCount count = new PendingCount(() -> 10L, () -> cancelled.set(true), executed, skipped, failed);
+
+        count.fail();
+
+        assertThat(cancelled).isTrue();
+        assertThat(failed.count()).isEqualTo(1);
+        assertThat(skipped.count()).isZero();
+    }
+}
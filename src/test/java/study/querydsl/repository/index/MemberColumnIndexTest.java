@@ -0,0 +1,84 @@
+package study.querydsl.repository.index;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.CommittedDataTest;
+import study.querydsl.changefeed.ChangeBatch;
+import study.querydsl.changefeed.ChangeEvent;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 적재 페이지(3건)보다 많은 row 를 넣고 페이지 경계에서 빠지거나 겹치는 row 가 없는지 확인한다.
+ * 인덱스는 페이지마다 따로 트랜잭션을 열어 읽고 쓰기 트랜잭션 안에서는 쓰지 않으므로 데이터를 커밋한다.
+ */
+@SpringBootTest(properties = {
+        "member.search.index.enabled=true",
+        "member.search.index.load-batch-size=3"
+})
+class MemberColumnIndexTest extends CommittedDataTest {
+
+    @Autowired
+    private MemberColumnIndex memberColumnIndex;
+
+    @Test
+    public void rebuildLoadsAllRowsInKeysetPages() {
+        List<Long> ids = transactionTemplate.execute(status -> {
+            Team team = new Team("indexTeam");
+            em.persist(team);
+            List<Long> persisted = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                Member member = new Member("indexMember" + i, 20 + i, team);
+                em.persist(member);
+                persisted.add(member.getId());
+            }
+            return persisted;
+        });
+
+        memberColumnIndex.rebuild();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("indexTeam");
+        Optional<List<MemberTeamDto>> result = memberColumnIndex.search(condition);
+
+        assertThat(result).isPresent();
+        assertThat(result.get()).extracting(MemberTeamDto::getMemberId).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    public void outOfOrderBatchDoesNotOverwriteNewerState() {
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team teamA = new Team("staleTeamA");
+            Team teamB = new Team("staleTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member = new Member("staleMember", 10, teamA);
+            em.persist(member);
+            return new Long[]{member.getId(), teamA.getId(), teamB.getId()};
+        });
+        memberColumnIndex.rebuild();
+        transactionTemplate.executeWithoutResult(status -> em.find(Member.class, ids[0]).changeTeam(em.find(Team.class, ids[2])));
+
+        // teamA 로 옮기던 이전 트랜잭션의 발행이 늦게 도착
+        memberColumnIndex.onChanges(new ChangeBatch(0, List.of(ChangeEvent.member(ChangeEvent.Operation.UPDATE, ids[0],
+                new MemberTeamDto(ids[0], "staleMember", 10, null, null),
+                new MemberTeamDto(ids[0], "staleMember", 10, ids[1], "staleTeamA")))));
+        // 이미 예약된 반영이 끝날 때까지 기다린 뒤 남은 변경을 반영
+        memberColumnIndex.applyChanges();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("staleMember");
+        assertThat(memberColumnIndex.search(condition).orElseThrow())
+                .extracting(MemberTeamDto::getTeamName)
+                .containsExactly("staleTeamB");
+    }
+}
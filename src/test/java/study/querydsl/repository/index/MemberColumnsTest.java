@@ -0,0 +1,90 @@
+package study.querydsl.repository.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import study.querydsl.changefeed.ChangeEvent;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberColumnsTest {
+
+    MemberColumns columns;
+
+    @BeforeEach
+    void before() {
+        MemberColumns.Builder builder = MemberColumns.builder(0);
+        for (long id = 1; id <= 2_000; id++) {
+            builder.add(id, "member" + (id % 100), (int) (id % 60), id % 2 == 0 ? 10L : 20L, id % 2 == 0 ? "teamA" : "teamB");
+        }
+        builder.add(2_001, "member1", null, null, null);
+        columns = builder.build();
+    }
+
+    @Test
+    public void searchByUsername() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+
+        List<MemberTeamDto> result = columns.search(condition);
+
+        assertThat(result).hasSize(21);
+        assertThat(result).extracting("memberId").isSorted();
+        assertThat(result.get(20).getTeamName()).isNull();
+        assertThat(result.get(20).getAge()).isNull();
+    }
+
+    @Test
+    public void searchByTeamAndAge() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(35);
+        condition.setAgeLoe(40);
+
+        List<MemberTeamDto> result = columns.search(condition);
+
+        assertThat(result).isNotEmpty();
+        assertThat(result).allMatch(dto -> "teamA".equals(dto.getTeamName()) && dto.getAge() >= 35 && dto.getAge() <= 40);
+        assertThat(result).hasSize((int) LongStream.rangeClosed(1, 2_000)
+                .filter(id -> id % 2 == 0 && id % 60 >= 35 && id % 60 <= 40)
+                .count());
+    }
+
+    @Test
+    public void unknownTeamOrNoFilter() {
+        MemberSearchCondition unknown = new MemberSearchCondition();
+        unknown.setTeamName("teamC");
+
+        assertThat(columns.search(unknown)).isEmpty();
+        assertThat(columns.search(new MemberSearchCondition())).hasSize(2_001);
+    }
+
+    @Test
+    public void applyChanges() {
+        MemberColumns changed = columns.apply(List.of(
+                ChangeEvent.member(ChangeEvent.Operation.DELETE, 2L, new MemberTeamDto(2L, "member2", 2, 10L, "teamA"), null),
+                ChangeEvent.member(ChangeEvent.Operation.UPDATE, 3L,
+                        new MemberTeamDto(3L, "member3", 3, 20L, "teamB"),
+                        new MemberTeamDto(3L, "renamed", 3, 20L, "teamB")),
+                ChangeEvent.member(ChangeEvent.Operation.INSERT, 5_000L, null, new MemberTeamDto(5_000L, "member1", 1, 10L, "teamA")),
+                ChangeEvent.team(ChangeEvent.Operation.UPDATE, 20L, "teamB", "teamC")));
+
+        MemberSearchCondition renamed = new MemberSearchCondition();
+        renamed.setUsername("renamed");
+        MemberSearchCondition teamC = new MemberSearchCondition();
+        teamC.setTeamName("teamC");
+        MemberSearchCondition member1 = new MemberSearchCondition();
+        member1.setUsername("member1");
+
+        assertThat(changed.size()).isEqualTo(2_001);
+        assertThat(changed.search(renamed)).extracting("memberId").containsExactly(3L);
+        assertThat(changed.search(teamC)).hasSize(1_000);
+        assertThat(changed.search(member1)).extracting("memberId").endsWith(2_001L, 5_000L);
+        // 같은 이벤트를 다시 적용해도 결과가 같다.
+        assertThat(changed.apply(List.of(ChangeEvent.member(ChangeEvent.Operation.DELETE, 2L, null, null))).size()).isEqualTo(2_001);
+    }
+}
@@ -0,0 +1,83 @@
+package study.querydsl.repository.projection;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.JpaTestData;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.jdbc.SqlStatementRecorder;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberJdbcProjectionTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberJdbcProjection jdbcProjection;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    SqlStatementRecorder statementRecorder;
+
+    @BeforeEach
+    void before() {
+        // flush 하지 않은 상태로 두어 JDBC 조회 전에 flush 되는지도 확인
+        new JpaTestData(em).create();
+    }
+
+    @Test
+    public void sameResultAsQuerydsl() {
+        MemberSearchCondition teamAge = new MemberSearchCondition();
+        teamAge.setTeamName("teamA");
+        teamAge.setAgeGoe(15);
+
+        for (MemberSearchCondition condition : List.of(new MemberSearchCondition(), teamAge)) {
+            assertThat(jdbcProjection.search(condition))
+                    .containsExactlyInAnyOrderElementsOf(memberRepository.search(condition));
+        }
+    }
+
+    @Test
+    public void columnsKeepNulls() {
+        MemberTeamColumns columns = jdbcProjection.searchColumns(new MemberSearchCondition(), 0);
+
+        assertThat(columns.size()).isEqualTo(6);
+        List<MemberTeamDto> dtos = columns.toDtos();
+        assertThat(dtos).containsExactlyInAnyOrderElementsOf(memberRepository.search(new MemberSearchCondition()));
+        assertThat(dtos).filteredOn(dto -> dto.getUsername() == null)
+                .singleElement()
+                .satisfies(dto -> assertThat(dto.getTeamId()).isNull());
+    }
+
+    @Test
+    public void maxRows() {
+        assertThat(jdbcProjection.searchColumns(new MemberSearchCondition(), 2).size()).isEqualTo(2);
+        assertThat(jdbcProjection.search(new MemberSearchCondition(), 3)).hasSize(3);
+    }
+
+    @Test
+    public void statementsAreRecorded() {
+        em.flush();
+
+        try (SqlStatementRecorder.Recording recording = statementRecorder.start(10)) {
+            jdbcProjection.search(new MemberSearchCondition());
+            jdbcProjection.searchColumns(new MemberSearchCondition(), 0);
+
+            assertThat(recording.getCount()).isEqualTo(2);
+        }
+    }
+}
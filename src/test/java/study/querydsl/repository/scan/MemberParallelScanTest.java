@@ -0,0 +1,214 @@
+package study.querydsl.repository.scan;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.NestedExceptionUtils;
+import study.querydsl.CommittedDataTest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.jdbc.SqlStatementListener;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest(properties = {
+        "member.search.scan.enabled=true",
+        "member.search.scan.parallelism=3",
+        "member.search.scan.chunk-size=40"
+})
+class MemberParallelScanTest extends CommittedDataTest {
+
+    @Autowired
+    private MemberParallelScan parallelScan;
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    private ScanThreads scanThreads;
+
+    @BeforeEach
+    void before() {
+        scanThreads.names.clear();
+        scanThreads.failure = null;
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            for (int i = 0; i < 500; i++) {
+                em.persist(new Member("member" + i, i % 50, i % 3 == 0 ? null : teamA));
+            }
+        });
+    }
+
+    @Test
+    public void split() {
+        List<long[]> chunks = MemberParallelScan.split(1, 10, 4);
+
+        assertThat(chunks).extracting(chunk -> chunk[0]).containsExactly(1L, 5L, 9L);
+        assertThat(chunks).extracting(chunk -> chunk[1]).containsExactly(4L, 8L, 10L);
+        assertThat(MemberParallelScan.split(5, 6, 10)).hasSize(1);
+        // 구간 수는 id 범위에 비례하고, 구간 크기는 chunkSize 를 넘지 않는다.
+        assertThat(MemberParallelScan.split(1, 1_000_000, 10_000)).hasSize(100)
+                .allMatch(chunk -> chunk[1] - chunk[0] + 1 <= 10_000);
+    }
+
+    @Test
+    public void orderedChunksMatchSingleQuery() {
+        List<MemberTeamDto> expected = queryFactory
+                .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .orderBy(member.id.asc())
+                .fetch();
+        List<MemberTeamDto> result = new ArrayList<>();
+
+        parallelScan.forEachChunk(new MemberSearchCondition(), MemberParallelScan.Merge.ORDERED, result::addAll);
+
+        assertThat(result).isEqualTo(expected);
+    }
+
+    @Test
+    public void searchDoesNotUseScan() {
+        scanThreads.names.clear();
+
+        assertThat(memberJpaRepository.search(new MemberSearchCondition())).hasSize(500);
+
+        assertThat(scanThreads.names).isEmpty();
+    }
+
+    @Test
+    public void writeTransactionIsRejected() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> parallelScan.forEachChunk(
+                new MemberSearchCondition(), MemberParallelScan.Merge.ORDERED, rows -> {
+                })))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void unorderedChunksQueryOnWorkersAndConsumeOnCaller() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(10);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<MemberTeamDto> result = new ArrayList<>();
+
+        parallelScan.forEachChunk(condition, MemberParallelScan.Merge.UNORDERED, rows -> {
+            threads.add(Thread.currentThread().getName());
+            result.addAll(rows);
+        });
+
+        assertThat(result).containsExactlyInAnyOrderElementsOf(memberJpaRepository.searchWithBuilder(condition));
+        // 구간 조회는 worker 에서, consumer 는 호출한 스레드에서 실행된다.
+        assertThat(scanThreads.names).isNotEmpty().allMatch(name -> name.startsWith("member-scan-"));
+        assertThat(threads).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void chunksAreBoundedBySize() {
+        List<Integer> sizes = new ArrayList<>();
+
+        parallelScan.forEachChunk(new MemberSearchCondition(), MemberParallelScan.Merge.ORDERED, rows -> sizes.add(rows.size()));
+
+        assertThat(sizes).hasSizeGreaterThan(1).allMatch(size -> size <= 40);
+        assertThat(sizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(500);
+    }
+
+    @Test
+    public void parallelismStaysWithinConnectionBudget() {
+        assertThat(MemberParallelScan.parallelism(0, 10, 16)).isEqualTo(2);
+        assertThat(MemberParallelScan.parallelism(0, 10, 1)).isEqualTo(1);
+        assertThat(MemberParallelScan.parallelism(0, 2, 16)).isEqualTo(1);
+        assertThat(MemberParallelScan.parallelism(3, 10, 16)).isEqualTo(3);
+        assertThat(MemberParallelScan.parallelism(9, 10, 16)).isEqualTo(5);
+    }
+
+    @Test
+    public void concurrentCallersShareWorkers() throws Exception {
+        int callers = 6;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        scanThreads.names.clear();
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    int[] rows = {0};
+                    parallelScan.forEachChunk(new MemberSearchCondition(), MemberParallelScan.Merge.UNORDERED, chunk -> rows[0] += chunk.size());
+                    return rows[0];
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isEqualTo(500);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 호출이 몇 개든 구간 조회는 parallelism(3) 개의 worker 에서만 실행된다.
+        assertThat(scanThreads.names).isNotEmpty().hasSizeLessThanOrEqualTo(3)
+                .allMatch(name -> name.startsWith("member-scan-"));
+    }
+
+    @Test
+    public void consumerFailurePropagates() {
+        assertThatThrownBy(() -> parallelScan.forEachChunk(new MemberSearchCondition(), MemberParallelScan.Merge.ORDERED, rows -> {
+            throw new IllegalStateException("consumer failed");
+        })).hasMessage("consumer failed");
+    }
+
+    @Test
+    public void workerQueryFailurePropagates() {
+        scanThreads.failure = "chunk query failed";
+
+        for (MemberParallelScan.Merge merge : MemberParallelScan.Merge.values()) {
+            assertThatThrownBy(() -> parallelScan.forEachChunk(new MemberSearchCondition(), merge, rows -> {
+            }))
+                    .satisfies(e -> assertThat(NestedExceptionUtils.getMostSpecificCause(e)).hasMessage("chunk query failed"));
+        }
+        assertThat(scanThreads.names).isNotEmpty().allMatch(name -> name.startsWith("member-scan-"));
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        ScanThreads scanThreads() {
+            return new ScanThreads();
+        }
+    }
+
+    // id 구간 조회를 실행한 스레드, failure 가 있으면 구간 조회를 그 메시지로 실패시킨다.
+    static class ScanThreads implements SqlStatementListener {
+
+        final Set<String> names = ConcurrentHashMap.newKeySet();
+        volatile String failure;
+
+        @Override
+        public void onStatement(String sql) {
+            if (sql.contains(" between ")) {
+                names.add(Thread.currentThread().getName());
+                if (failure != null) {
+                    throw new IllegalStateException(failure);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package study.querydsl.repository.schema;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberSearchShape;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SearchIndexVerifierTest {
+
+    @Autowired
+    private SearchIndexVerifier searchIndexVerifier;
+
+    @Test
+    void everySearchShapeHasSupportingIndex() {
+        assertThat(searchIndexVerifier.findMissing()).isEmpty();
+    }
+
+    @Test
+    void teamNameAndAgeNeedsCompositeIndex() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(10);
+
+        assertThat(MemberSearchShape.of(condition).requiredIndexes()).containsExactly(
+                new IndexRequirement("team", "name"),
+                new IndexRequirement("member", "team_id", "age"));
+    }
+
+    @Test
+    void leadingColumnsMustMatch() {
+        IndexRequirement teamAge = new IndexRequirement("member", "team_id", "age");
+
+        assertThat(teamAge.isSatisfiedBy(List.of("TEAM_ID", "AGE", "USERNAME"))).isTrue();
+        assertThat(teamAge.isSatisfiedBy(List.of("TEAM_ID"))).isFalse();
+        assertThat(teamAge.isSatisfiedBy(List.of("AGE", "TEAM_ID"))).isFalse();
+    }
+}
@@ -0,0 +1,162 @@
+package study.querydsl.repository.stats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.CommittedDataTest;
+import study.querydsl.changefeed.ChangeBatch;
+import study.querydsl.changefeed.ChangeCapturingQueryFactory;
+import study.querydsl.changefeed.ChangeEvent;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.TeamStatsRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+class TeamStatsRollupTest extends CommittedDataTest {
+
+    @Autowired
+    private ChangeCapturingQueryFactory capturingQueryFactory;
+
+    @SpyBean
+    private TeamStatsRepository teamStatsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TeamStatsRollup rollup;
+
+    Long teamAId;
+    Long teamBId;
+    Long member1Id;
+
+    @BeforeEach
+    void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("member1", 10, teamA);
+            em.persist(member1);
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+            em.persist(new Member("member4", null, teamB));
+            em.persist(new Member("member5", 40));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+            member1Id = member1.getId();
+        });
+        rollup.rebuild();
+    }
+
+    @Test
+    public void rebuild() {
+        List<TeamStatsDto> stats = teamStatsRepository.findStats(null);
+
+        assertThat(stats).isEqualTo(teamStatsRepository.aggregateStats(null));
+        TeamStatsDto teamB = teamStatsRepository.findStats("teamB").get(0);
+        assertThat(teamB.getMemberCount()).isEqualTo(2);
+        assertThat(teamB.getAgeAvg()).isEqualTo(30.0);
+        assertThat(teamB.getAgeMin()).isEqualTo(30);
+    }
+
+    @Test
+    public void entityChanges() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamC = new Team("teamC");
+            em.persist(teamC);
+            em.persist(new Member("member6", 5, teamC));
+            em.persist(new Member("member7", 50, em.find(Team.class, teamAId)));
+        });
+        assertRollupMatchesMembers();
+
+        // 최소 나이 회원이 다른 팀으로 이동
+        transactionTemplate.executeWithoutResult(status -> em.find(Member.class, member1Id).changeTeam(em.find(Team.class, teamBId)));
+        assertRollupMatchesMembers();
+        assertThat(teamStatsRepository.findStats("teamA").get(0).getAgeMin()).isEqualTo(20);
+
+        transactionTemplate.executeWithoutResult(status -> em.remove(em.find(Member.class, member1Id)));
+        assertRollupMatchesMembers();
+    }
+
+    @Test
+    public void bulkChanges() {
+        transactionTemplate.executeWithoutResult(status -> capturingQueryFactory
+                .update(member)
+                .set(member.age, member.age.add(100))
+                .where(member.age.lt(25))
+                .execute());
+        assertRollupMatchesMembers();
+
+        transactionTemplate.executeWithoutResult(status -> capturingQueryFactory
+                .delete(member)
+                .where(member.age.gt(100))
+                .execute());
+        assertRollupMatchesMembers();
+        assertThat(teamStatsRepository.findStats("teamA").get(0).getMemberCount()).isZero();
+    }
+
+    @Test
+    public void changesAreAppliedAfterCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("member6", 60, em.find(Team.class, teamAId)));
+            em.flush();
+            // 트랜잭션 안에서는 team_stats 를 건드리지 않는다.
+            assertThat(jdbcTemplate.queryForObject("select member_count from team_stats where team_id = ?", Long.class, teamAId))
+                    .isEqualTo(2);
+            assertThat(jdbcTemplate.queryForObject("select count(*) from team_stats_delta where team_id = ?", Long.class, teamAId))
+                    .isEqualTo(1);
+        });
+
+        assertRollupMatchesMembers();
+        assertThat(teamStatsRepository.findStats("teamA").get(0).getAgeMax()).isEqualTo(60);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from team_stats_delta", Long.class)).isZero();
+    }
+
+    @Test
+    public void unknownChangeRebuilds() throws InterruptedException {
+        transactionTemplate.executeWithoutResult(status -> em.createNativeQuery("update member set age = age + 1").executeUpdate());
+
+        for (int i = 0; i < 100 && !rollup.isReady(); i++) {
+            Thread.sleep(50);
+        }
+        assertRollupMatchesMembers();
+    }
+
+    @Test
+    public void unknownChangeDuringRebuildKeepsRollupNotReady() throws InterruptedException {
+        // 집계 쿼리 직전에 unknown 변경이 커밋된 것처럼
+        doAnswer(invocation -> {
+            rollup.onChanges(new ChangeBatch(0, List.of(ChangeEvent.unknown(ChangeEvent.Entity.MEMBER, ChangeEvent.Operation.UPDATE))));
+            return invocation.callRealMethod();
+        }).doCallRealMethod().when(teamStatsRepository).aggregateStats(null);
+
+        // 예약된 재집계는 rollup 모니터를 기다리므로 이 블록이 끝나기 전에는 실행되지 않는다.
+        synchronized (rollup) {
+            rollup.rebuild();
+            assertThat(rollup.isReady()).isFalse();
+        }
+
+        for (int i = 0; i < 100 && !rollup.isReady(); i++) {
+            Thread.sleep(50);
+        }
+        assertRollupMatchesMembers();
+    }
+
+    private void assertRollupMatchesMembers() {
+        rollup.applyPending();
+        assertThat(rollup.isReady()).isTrue();
+        assertThat(teamStatsRepository.findStats(null)).isEqualTo(teamStatsRepository.aggregateStats(null));
+    }
+}
@@ -0,0 +1,71 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.CommittedDataTest;
+import study.querydsl.dto.MemberImportResult;
+import study.querydsl.dto.MemberImportRow;
+import study.querydsl.entity.Member;
+
+import java.util.Iterator;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest(properties = {"member.import.chunk-size=250", "member.import.flush-size=50"})
+class MemberBulkImportServiceTest extends CommittedDataTest {
+
+    @Autowired
+    private MemberBulkImportService memberBulkImportService;
+
+    @Test
+    void importMembers() {
+        MemberImportResult result = memberBulkImportService.importMembers(rows(1_000));
+
+        assertThat(result.getRows()).isEqualTo(1_000);
+        assertThat(countMembers()).isEqualTo(1_000);
+        assertThat(countMembersOf("teamA")).isEqualTo(500);
+    }
+
+    @Test
+    void importMembersJdbc() {
+        MemberImportResult result = memberBulkImportService.importMembersJdbc(rows(1_000));
+
+        assertThat(result.getRows()).isEqualTo(1_000);
+        assertThat(countMembers()).isEqualTo(1_000);
+        assertThat(countMembersOf("teamB")).isEqualTo(500);
+    }
+
+    @Test
+    void jdbcAndJpaIdsDoNotCollide() {
+        // 같은 시퀀스 블록을 JPA 저장과 JDBC import 가 번갈아 쓴다.
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Member("jpaMember1", 10)));
+        memberBulkImportService.importMembersJdbc(rows(100));
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Member("jpaMember2", 20)));
+        memberBulkImportService.importMembers(rows(10));
+
+        assertThat(countMembers()).isEqualTo(112);
+    }
+
+    private Iterator<MemberImportRow> rows(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new MemberImportRow("member" + i, i % 100, i % 2 == 0 ? "teamA" : "teamB"))
+                .iterator();
+    }
+
+    private Long countMembers() {
+        return queryFactory.select(member.count()).from(member).fetchOne();
+    }
+
+    private Long countMembersOf(String teamName) {
+        return queryFactory
+                .select(member.count())
+                .from(member)
+                .join(member.team, team)
+                .where(team.name.eq(teamName))
+                .fetchOne();
+    }
+}
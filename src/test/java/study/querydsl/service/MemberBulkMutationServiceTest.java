@@ -0,0 +1,131 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.CommittedDataTest;
+import study.querydsl.dto.MemberBulkResult;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest(properties = "member.bulk.chunk-size=3")
+class MemberBulkMutationServiceTest extends CommittedDataTest {
+
+    @Autowired
+    private MemberBulkMutationService bulkMutationService;
+
+    List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 1; i <= 10; i++) {
+                Member saved = new Member("member" + i, i * 5);
+                em.persist(saved);
+                ids.add(saved.getId());
+            }
+        });
+    }
+
+    @Test
+    public void updateInChunks() {
+        List<MemberBulkResult> progress = new ArrayList<>();
+
+        MemberBulkResult result = bulkMutationService.update(member.age.lt(28),
+                clause -> clause.set(member.username, "비회원"), 0L, progress::add);
+
+        assertThat(result.getRows()).isEqualTo(5);
+        assertThat(result.getChunks()).isEqualTo(2);
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(progress).extracting(MemberBulkResult::getRows).containsExactly(3L, 5L);
+        assertThat(queryFactory.selectFrom(member).where(member.username.eq("비회원")).fetch()).hasSize(5);
+    }
+
+    @Test
+    public void resumeAfterFailure() {
+        MemberBulkMutationException failure = catchThrowableOfType(() -> bulkMutationService.delete(member.age.goe(10), 0L, progress -> {
+            if (progress.getChunks() == 2) {
+                throw new IllegalStateException("stop");
+            }
+        }), MemberBulkMutationException.class);
+
+        assertThat(failure.getProgress().getRows()).isEqualTo(6);
+        assertThat(countMembers()).isEqualTo(4);
+
+        MemberBulkResult resumed = bulkMutationService.delete(member.age.goe(10), failure.getProgress().getLastId(), progress -> { });
+
+        assertThat(resumed.getRows()).isEqualTo(3);
+        assertThat(countMembers()).isEqualTo(1);
+    }
+
+    @Test
+    public void reconcileOnlyAffectedEntities() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Member affected = em.find(Member.class, ids.get(0));
+            Member untouched = em.find(Member.class, ids.get(9));
+            Member deleted = em.find(Member.class, ids.get(1));
+
+            bulkMutationService.update(member.age.lt(8), clause -> clause.set(member.username, "비회원"));
+            bulkMutationService.delete(member.age.eq(10));
+
+            assertThat(affected.getUsername()).isEqualTo("비회원");
+            assertThat(em.contains(affected)).isTrue();
+            assertThat(em.contains(untouched)).isTrue();
+            assertThat(em.contains(deleted)).isFalse();
+        });
+    }
+
+    @Test
+    public void unflushedCallerChangeIsRejected() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            Member changed = em.find(Member.class, ids.get(0));
+            changed.changeTeam(teamA);
+
+            assertThatThrownBy(() -> bulkMutationService.update(member.age.lt(8), clause -> clause.set(member.username, "비회원")))
+                    .isInstanceOf(IllegalStateException.class);
+
+            // 아무 chunk 도 실행하지 않았고 호출자의 변경도 그대로 남는다.
+            assertThat(changed.getTeam()).isSameAs(teamA);
+            assertThat(changed.getUsername()).isEqualTo("member1");
+        });
+
+        assertThat(queryFactory.selectFrom(member).where(member.username.eq("비회원")).fetch()).isEmpty();
+        assertThat(queryFactory.selectFrom(member).where(member.id.eq(ids.get(0))).fetchOne().getTeam()).isNotNull();
+    }
+
+    @Test
+    public void queuedCallerInsertOrDeleteIsRejected() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("member-new", 5));
+
+            assertThatThrownBy(() -> bulkMutationService.delete(member.age.lt(8)))
+                    .isInstanceOf(IllegalStateException.class);
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            em.remove(em.find(Member.class, ids.get(0)));
+
+            assertThatThrownBy(() -> bulkMutationService.update(member.age.lt(8), clause -> clause.set(member.username, "비회원")))
+                    .isInstanceOf(IllegalStateException.class);
+            status.setRollbackOnly();
+        });
+
+        assertThat(queryFactory.selectFrom(member).where(member.username.eq("비회원")).fetch()).isEmpty();
+        assertThat(countMembers()).isEqualTo(ids.size());
+    }
+
+    private long countMembers() {
+        return queryFactory.select(member.count()).from(member).fetchOne();
+    }
+}
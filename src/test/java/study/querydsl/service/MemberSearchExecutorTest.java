@@ -0,0 +1,124 @@
+package study.querydsl.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import study.querydsl.config.MemberSearchProperties;
+import study.querydsl.jdbc.SqlStatementRecorder;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * ASYNC 모드, 플랫폼 스레드 1개 + 대기열 1개
+ */
+class MemberSearchExecutorTest {
+
+    SqlStatementRecorder statementRecorder = new SqlStatementRecorder();
+    CountDownLatch release = new CountDownLatch(1);
+    MemberSearchExecutor executor;
+
+    @AfterEach
+    void after() {
+        release.countDown();
+        if (executor != null) {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void runsOnWorkerThread() throws Exception {
+        executor = executor(Duration.ofSeconds(5));
+        Thread caller = Thread.currentThread();
+
+        Thread worker = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        assertThat(worker).isNotSameAs(caller);
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        executor = executor(Duration.ofSeconds(5));
+
+        CompletableFuture<String> running = executor.submit(this::blocked);
+        CompletableFuture<String> queued = executor.submit(this::blocked);
+        CompletableFuture<String> rejected = executor.submit(() -> "rejected");
+
+        // 실행 중 1 + 대기 1 을 넘는 요청은 바로 거절
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::get).hasCauseInstanceOf(MemberSearchRejectedException.class);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+
+        // 자리가 나면 다시 받는다.
+        assertThat(executor.submit(() -> "accepted").get(5, TimeUnit.SECONDS)).isEqualTo("accepted");
+    }
+
+    @Test
+    void queuedSearchTimesOut() throws Exception {
+        executor = executor(Duration.ofMillis(100));
+        AtomicBoolean queuedRan = new AtomicBoolean();
+
+        CompletableFuture<String> running = executor.submit(this::blocked);
+        CompletableFuture<String> queued = executor.submit(() -> {
+            queuedRan.set(true);
+            return "late";
+        });
+
+        // 실행 중인 검색이 끝나기 전에 timeout 으로 응답
+        assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(MemberSearchRejectedException.class);
+        assertThat(running).isNotDone();
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        // 만료된 검색은 나중에 스레드가 비어도 실행하지 않는다.
+        assertThat(executor.submit(() -> "next").get(5, TimeUnit.SECONDS)).isEqualTo("next");
+        assertThat(queuedRan).isFalse();
+    }
+
+    @Test
+    void workerStatementsAreRecordedInCallerRecording() throws Exception {
+        executor = executor(Duration.ofSeconds(5));
+
+        try (SqlStatementRecorder.Recording recording = statementRecorder.start(10)) {
+            executor.submit(() -> {
+                statementRecorder.onStatement("select 1");
+                return null;
+            }).get(5, TimeUnit.SECONDS);
+
+            assertThat(recording.getCount()).isEqualTo(1);
+        }
+    }
+
+    private String blocked() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+
+    private MemberSearchExecutor executor(Duration queueTimeout) {
+        MemberSearchProperties properties = new MemberSearchProperties();
+        MemberSearchProperties.Execution execution = properties.getExecution();
+        execution.setMode(MemberSearchExecutor.Mode.ASYNC);
+        execution.setVirtualThreads(false);
+        execution.setMaxConcurrency(1);
+        execution.setQueueCapacity(1);
+        execution.setQueueTimeout(queueTimeout);
+        return new MemberSearchExecutor(properties, mock(DataSource.class), statementRecorder);
+    }
+}